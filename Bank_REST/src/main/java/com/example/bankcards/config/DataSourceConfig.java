@@ -0,0 +1,77 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.ReadYourWritesWindow;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the read replicas listed in
+ * {@code datasource.replicas.urls} and everything else to the primary. The lazy proxy only fetches a physical
+ * connection at the first statement, once the transaction has marked it read-only, so the choice of pool is
+ * made per transaction. With no replicas configured every connection comes from the primary as before.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            ReadYourWritesWindow readYourWritesWindow,
+            @Value("${datasource.replicas.urls:}") String urls,
+            @Value("${datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${datasource.replicas.connection-timeout:1s}") Duration connectionTimeout,
+            @Value("${datasource.replicas.max-lag:5s}") Duration maxLag) {
+        List<String> replicaUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        List<HikariDataSource> replicas = IntStream.range(0, replicaUrls.size())
+                .mapToObj(i -> replicaPool(properties, replicaUrls.get(i), i + 1, poolSize, connectionTimeout))
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource(properties), replicas, readYourWritesWindow, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource(properties));
+        if (replicaRoutingDataSource.hasReplicas()) {
+            dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        }
+        return dataSource;
+    }
+
+    private HikariDataSource replicaPool(DataSourceProperties properties, String url, int index,
+                                         int poolSize, Duration connectionTimeout) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica-" + index);
+        replica.setJdbcUrl(url);
+        replica.setUsername(properties.determineUsername());
+        replica.setPassword(properties.determinePassword());
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setMaximumPoolSize(poolSize);
+        replica.setReadOnly(true);
+        replica.setConnectionTimeout(connectionTimeout.toMillis());
+        // Start even when a replica is down; the health check keeps it out of rotation
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.ReadYourWritesWindow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Hands out connections for read-only transactions: round-robin over the replicas that passed the last
+ * health check, skipping one that refuses a connection, and falling back to the primary when none is left
+ * or the current user is inside the {@link ReadYourWritesWindow}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    // The last replayed commit gets older while the primary is idle, so a replica that has replayed
+    // everything it received counts as caught up
+    private static final String REPLAY_LAG_SQL = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesWindow readYourWrites;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                    ReadYourWritesWindow readYourWrites, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(i -> new Replica("replica-" + (i + 1), replicas.get(i)))
+                .toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLag = maxLag;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!readYourWrites.currentUserNeedsPrimary()) {
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    markUnhealthy(replica, e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Replica pools are built with the configured credentials; other credentials can only go to the primary
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Probes every replica, taking it out of rotation while it is unreachable or its replay lag exceeds
+     * {@code maxLag}, and putting it back once it recovers.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(REPLAY_LAG_SQL)) {
+                rs.next();
+                long lagMillis = rs.getLong(1);
+                if (lagMillis > maxLag.toMillis()) {
+                    markUnhealthy(replica, "replay lag " + lagMillis + " ms");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Read replica [{}] is back in rotation", replica.name);
+                }
+            } catch (SQLException e) {
+                markUnhealthy(replica, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica [{}] taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
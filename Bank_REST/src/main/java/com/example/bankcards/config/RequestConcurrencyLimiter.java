@@ -0,0 +1,77 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With virtual threads Tomcat no longer caps in-flight requests, so thousands of them could queue on HikariCP
+ * and fail after its connection timeout. This filter admits a bounded number of requests, sized from the
+ * connection pool; the rest wait cheaply on the semaphore and get a 503 if no permit frees up in time.
+ */
+@Component
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class RequestConcurrencyLimiter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public RequestConcurrencyLimiter(
+            ObjectMapper objectMapper,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${concurrency.requests-per-connection:4}") int requestsPerConnection,
+            @Value("${concurrency.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(poolSize * requestsPerConnection, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal
+            (HttpServletRequest request,
+             HttpServletResponse response,
+             FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Rejected request at [{}]: no request permit available", request.getRequestURI());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getWriter(), new ErrorResponse(
+                    HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy, retry later", request.getRequestURI()));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BulkCreateCardsRequestDTO;
+import com.example.bankcards.dto.BulkCreateCardsResponseDTO;
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardPageDTO;
 import com.example.bankcards.dto.CreateCardRequestDTO;
+import com.example.bankcards.service.CardIssuanceService;
 import com.example.bankcards.service.CardService;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
@@ -28,14 +31,18 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AdminCardController {
     private final CardService cardService;
+    private final CardIssuanceService cardIssuanceService;
 
     @GetMapping("/all")
     public ResponseEntity<CardPageDTO> getAllCards(
             @RequestParam(value = "status", required = false) String cardStatus,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "after", required = false) String after
     ) {
-        CardPageDTO results = cardService.listAllCards(cardStatus, page, size);
+        CardPageDTO results = (after != null)
+                ? cardService.listAllCardsAfter(cardStatus, after, size)
+                : cardService.listAllCards(cardStatus, page, size);
         return ResponseEntity.ok(results);
     }
 
@@ -44,9 +51,12 @@ public class AdminCardController {
             @PathVariable @NonNull String userId,
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "page", defaultValue = "0") @Min(0) int page,
-            @RequestParam(value = "size", defaultValue = "10") @Positive int size
+            @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+            @RequestParam(value = "after", required = false) String after
     ) {
-        CardPageDTO result = cardService.getCardsByUserId(userId, status, page, size);
+        CardPageDTO result = (after != null)
+                ? cardService.getCardsByUserIdAfter(userId, status, after, size)
+                : cardService.getCardsByUserId(userId, status, page, size);
         return ResponseEntity.ok(result);
     }
 
@@ -67,6 +77,17 @@ public class AdminCardController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateCardsResponseDTO> createCards
+            (@RequestBody BulkCreateCardsRequestDTO request) {
+        BulkCreateCardsResponseDTO result = cardIssuanceService.issueCards(
+                request.userIds(),
+                request.cardsPerUser(),
+                request.initialBalance()
+        );
+        return ResponseEntity.ok(result);
+    }
+
     @PatchMapping("/{cardId}/status")
     public ResponseEntity<String> ChangeCardStatus(
             @PathVariable @NonNull String cardId,
@@ -76,6 +97,15 @@ public class AdminCardController {
         return ResponseEntity.ok("Updated successfully");
     }
 
+    @PatchMapping("/{cardId}/balance-slots")
+    public ResponseEntity<String> changeBalanceSlots(
+            @PathVariable @NonNull String cardId,
+            @RequestParam @Min(0) int slots
+    ) {
+        cardService.updateBalanceSlots(cardId, slots);
+        return ResponseEntity.ok("Updated successfully");
+    }
+
     @DeleteMapping("/{cardId}/delete")
     public ResponseEntity<String> deleteCard
             (@PathVariable @NonNull String cardId) {
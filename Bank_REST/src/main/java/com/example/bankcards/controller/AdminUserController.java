@@ -30,8 +30,11 @@ public class AdminUserController {
     public ResponseEntity<UserPageDTO> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String fullName) {
-        UserPageDTO results = userService.getAllUsers(page, size, fullName);
+            @RequestParam(required = false) String fullName,
+            @RequestParam(required = false) String after) {
+        UserPageDTO results = (after != null)
+                ? userService.getAllUsersAfter(after, size, fullName)
+                : userService.getAllUsers(page, size, fullName);
         return ResponseEntity.ok(results);
     }
 
@@ -0,0 +1,36 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.service.AsyncCardReadService;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.concurrent.CompletableFuture;
+
+
+@RestController
+@RequestMapping("/api/v1/cards/async")
+@RequiredArgsConstructor
+public class AsyncCardController {
+    private final AsyncCardReadService asyncCardReadService;
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamCurrentUserCards
+            (@RequestParam(value = "status", required = false) String cardStatus) {
+        ResponseBodyEmitter emitter = asyncCardReadService.streamCurrentUserCards(cardStatus);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    @GetMapping("/{cardId}/balance")
+    public CompletableFuture<ResponseEntity<String>> checkBalance
+            (@PathVariable @NonNull String cardId) {
+        return asyncCardReadService.checkBalance(cardId).thenApply(ResponseEntity::ok);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.bankcards.controller;
 
+import com.example.bankcards.dto.BatchTransferResponseDTO;
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.dto.TransferHistoryPageDTO;
 import com.example.bankcards.dto.TransferRequestDTO;
 import com.example.bankcards.dto.TransferResponseDTO;
 import com.example.bankcards.service.CardService;
@@ -14,10 +16,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/api/v1/cards")
@@ -29,9 +34,12 @@ public class CardController {
     public ResponseEntity<CardPageDTO> listCurrentUserCards
             (@RequestParam(value = "status", required = false) String cardStatus,
              @RequestParam(value = "page", defaultValue = "0") @Min(value = 0) int page,
-             @RequestParam(value = "size", defaultValue = "10") @Positive int size
+             @RequestParam(value = "size", defaultValue = "10") @Positive int size,
+             @RequestParam(value = "after", required = false) String after
             ) {
-        CardPageDTO results = cardService.listAllCardForCurrentUser(cardStatus, page, size);
+        CardPageDTO results = (after != null)
+                ? cardService.listAllCardForCurrentUserAfter(cardStatus, after, size)
+                : cardService.listAllCardForCurrentUser(cardStatus, page, size);
         return ResponseEntity.ok(results);
     }
 
@@ -56,8 +64,26 @@ public class CardController {
     }
 
     @PostMapping("/transfers")
-    public ResponseEntity<TransferResponseDTO> transfer(@RequestBody TransferRequestDTO dto) {
-        TransferResponseDTO result = cardService.transfer(dto);
+    public ResponseEntity<TransferResponseDTO> transfer
+            (@RequestBody TransferRequestDTO dto,
+             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransferResponseDTO result = cardService.transfer(dto, idempotencyKey);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<BatchTransferResponseDTO> transferBatch
+            (@RequestBody List<TransferRequestDTO> requests) {
+        BatchTransferResponseDTO result = cardService.transferBatch(requests);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/{cardId}/transfers")
+    public ResponseEntity<TransferHistoryPageDTO> listTransfers
+            (@PathVariable @NonNull String cardId,
+             @RequestParam(value = "after", required = false) String after,
+             @RequestParam(value = "size", defaultValue = "20") @Positive int size) {
+        TransferHistoryPageDTO result = cardService.listTransfers(cardId, after, size);
         return ResponseEntity.ok(result);
     }
 
@@ -0,0 +1,8 @@
+package com.example.bankcards.dto;
+
+public record BatchTransferItemResultDTO(
+        int index,
+        boolean success,
+        String error
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BulkCreateCardsRequestDTO(
+        List<String> userIds,
+        int cardsPerUser,
+        BigDecimal initialBalance
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.bankcards.dto;
+
+public record BulkCreateCardsResponseDTO(
+        int requested,
+        int issued
+) {
+}
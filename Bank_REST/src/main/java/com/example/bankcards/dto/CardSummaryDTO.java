@@ -0,0 +1,22 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat row for card listings, loaded together with the owner's name in a single query.
+ */
+public record CardSummaryDTO(
+        UUID id,
+        String ownerName,
+        String cardNumberLast4,
+        LocalDate expirationDate,
+        CardStatus cardStatus,
+        BigDecimal balance,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TransferEventDTO(
+        UUID transferId,
+        UUID sourceCardId,
+        UUID targetCardId,
+        BigDecimal amount,
+        LocalDateTime createdAt
+) {
+}
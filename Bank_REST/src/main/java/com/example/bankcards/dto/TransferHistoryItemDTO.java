@@ -0,0 +1,18 @@
+package com.example.bankcards.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TransferHistoryItemDTO(
+        UUID id,
+        TransferDirection direction,
+        UUID counterpartyCardId,
+        BigDecimal amount,
+        LocalDateTime createdAt) {
+
+    public enum TransferDirection {
+        INCOMING,
+        OUTGOING
+    }
+}
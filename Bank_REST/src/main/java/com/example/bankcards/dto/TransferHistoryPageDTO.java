@@ -0,0 +1,13 @@
+package com.example.bankcards.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TransferHistoryPageDTO(
+        List<TransferHistoryItemDTO> content,
+        int size,
+        String nextCursor
+) {
+}
@@ -10,6 +10,7 @@ public record UserPageDTO(
         int page,
         int size,
         long totalElements,
-        int totalPages
+        int totalPages,
+        String nextCursor
 ) {
 }
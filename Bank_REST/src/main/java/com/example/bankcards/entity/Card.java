@@ -40,9 +40,24 @@ public class Card {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "card_number", nullable = false, columnDefinition = "TEXT")
+    /**
+     * Legacy text ciphertext, {@code null} once the row has been moved to {@link #cardNumberCipher}.
+     */
+    @Column(name = "card_number", columnDefinition = "TEXT")
     private String cardNumber;
 
+    /**
+     * Card number in the binary ciphertext format, see {@code EncryptionUtil#encryptBinary}.
+     */
+    @Column(name = "card_number_cipher", columnDefinition = "BYTEA")
+    private byte[] cardNumberCipher;
+
+    /**
+     * Plain last four digits, kept next to the ciphertext so masked views never need to decrypt.
+     */
+    @Column(name = "card_number_last4", nullable = false, length = 4)
+    private String cardNumberLast4;
+
     @Column(name = "card_number_fingerprint", nullable = false, unique = true, length = 64)
     private String cardNumberFingerprint;
 
@@ -55,6 +70,12 @@ public class Card {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal balance;
 
+    /**
+     * Number of credit slots for a striped card, 0 when the card is not striped.
+     */
+    @Column(name = "balance_slots", nullable = false)
+    private int balanceSlots;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,43 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One sub-balance of a striped card. Credits land in a slot instead of the card row and are
+ * periodically folded back into {@link Card#getBalance()}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "card_balance_slots")
+public class CardBalanceSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "card_id", nullable = false)
+    private UUID cardId;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal balance;
+}
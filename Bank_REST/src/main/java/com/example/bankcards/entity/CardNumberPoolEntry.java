@@ -0,0 +1,51 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Card number generated ahead of time and reserved for the next issued card; the row is deleted when claimed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "card_number_pool")
+public class CardNumberPoolEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "card_number_cipher", nullable = false, columnDefinition = "BYTEA")
+    private byte[] cardNumberCipher;
+
+    @Column(name = "card_number_fingerprint", nullable = false, unique = true, length = 64)
+    private String cardNumberFingerprint;
+
+    @Column(name = "card_number_last4", nullable = false, length = 4)
+    private String cardNumberLast4;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of re-encrypting card numbers with one key, so the rotation resumes where it stopped after a restart.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "encryption_key_rotations")
+public class EncryptionKeyRotation {
+    @Id
+    @Column(name = "key_id")
+    private Integer keyId;
+
+    /**
+     * Highest card id already visited, {@code null} before the first chunk.
+     */
+    @Column(name = "last_card_id")
+    private UUID lastCardId;
+
+    @Column(name = "rotated_rows", nullable = false)
+    private long rotatedRows;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
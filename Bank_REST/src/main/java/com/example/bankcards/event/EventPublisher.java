@@ -0,0 +1,11 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.entity.OutboxEvent;
+
+/**
+ * Delivers outbox events to downstream systems. Implementations must be safe to call again
+ * with an event that was already delivered, the outbox guarantees at-least-once delivery.
+ */
+public interface EventPublisher {
+    void publish(OutboxEvent event);
+}
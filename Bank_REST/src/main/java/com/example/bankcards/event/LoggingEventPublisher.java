@@ -0,0 +1,19 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.entity.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local publisher that writes events to the application log, used until a broker-backed publisher is configured.
+ */
+@Component
+@Slf4j
+public class LoggingEventPublisher implements EventPublisher {
+
+    @Override
+    public void publish(OutboxEvent event) {
+        log.info("Outbox event [{}] {} {}: {}",
+                event.getId(), event.getEventType(), event.getAggregateId(), event.getPayload());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.bankcards.exception;
+
+import lombok.Getter;
+
+/**
+ * A bulk issuance failed part-way. Chunks commit on their own, so {@code issued} cards already exist.
+ */
+@Getter
+public class BulkIssuanceException extends RuntimeException {
+    private final int requested;
+    private final int issued;
+
+    public BulkIssuanceException(int requested, int issued, Throwable cause) {
+        super("Issued " + issued + " of " + requested + " cards before failing; the issued cards were kept", cause);
+        this.requested = requested;
+        this.issued = issued;
+    }
+}
@@ -18,7 +18,10 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
-    record ErrorResponse(int status, String error, String path) {
+    public record ErrorResponse(int status, String error, String path) {
+    }
+
+    record BulkIssuanceErrorResponse(int status, String error, String path, int requested, int issued) {
     }
 
 
@@ -76,6 +79,15 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(500, ex.getMessage(), req.getRequestURI());
     }
 
+    @ExceptionHandler(BulkIssuanceException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public BulkIssuanceErrorResponse handleBulkIssuanceException
+            (BulkIssuanceException ex, HttpServletRequest req) {
+        log.error("Bulk issuance failed at [{}]: {}", req.getRequestURI(), ex.getMessage(), ex);
+        return new BulkIssuanceErrorResponse(500, ex.getMessage(), req.getRequestURI(),
+                ex.getRequested(), ex.getIssued());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleIllegalArgumentException
@@ -99,6 +111,14 @@ public class GlobalExceptionHandler {
         log.warn("User tried to fetch with invalid argument at [{}]: {}", req.getRequestURI(), e.getMessage(), e);
         return new ErrorResponse(400, "Validation error with the parameters: " + e.getMessage(), req.getRequestURI());
     }
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException
+            (ConflictException ex, HttpServletRequest req) {
+        log.info("Conflicting request at [{}]: {}", req.getRequestURI(), ex.getMessage());
+        return new ErrorResponse(409, ex.getMessage(), req.getRequestURI());
+    }
+
     @ExceptionHandler(NotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException
@@ -106,4 +126,12 @@ public class GlobalExceptionHandler {
         log.info("User tried to fetch not found resource [{}]: {}", req.getRequestURI(), ex.getMessage(), ex);
         return new ErrorResponse(404, "Not found: " + ex.getMessage(), req.getRequestURI());
     }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleTooManyRequestsException
+            (TooManyRequestsException ex, HttpServletRequest req) {
+        log.warn("Rejected request at [{}]: {}", req.getRequestURI(), ex.getMessage());
+        return new ErrorResponse(429, ex.getMessage(), req.getRequestURI());
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.CardKeyRotationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-encrypts card numbers with the active key one chunk per run. The delay between runs is derived from
+ * {@code encryption.rotation.rows-per-second}, which caps the write rate the rotation adds under live traffic.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardKeyRotationJob {
+
+    private final CardKeyRotationService cardKeyRotationService;
+
+    @Value("${encryption.rotation.chunk-size:100}")
+    private int chunkSize;
+
+    @Scheduled(fixedDelayString = "#{1000L * ${encryption.rotation.chunk-size:100} / ${encryption.rotation.rows-per-second:200}}",
+            initialDelayString = "${encryption.rotation.initial-delay:30s}")
+    public void rotateChunk() {
+        cardKeyRotationService.rotateChunk(chunkSize);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.CardNumberMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves card numbers still stored as text ciphertext to the binary format, one short transaction per batch.
+ * Once every row is migrated each run is a single empty index scan.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CardNumberFormatMigrationJob {
+
+    private final CardNumberMigrationService cardNumberMigrationService;
+
+    @Value("${card.number-migration.batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${card.number-migration.interval:30s}")
+    public void migrateLegacyCardNumbers() {
+        int total = 0;
+        int migrated;
+        do {
+            migrated = cardNumberMigrationService.migrateBatch(batchSize);
+            total += migrated;
+        } while (migrated == batchSize);
+        if (total > 0) {
+            log.info("Migrated {} card numbers to the binary cipher format", total);
+        }
+    }
+}
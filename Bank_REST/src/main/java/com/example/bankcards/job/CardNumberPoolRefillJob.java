@@ -0,0 +1,21 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.CardNumberPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link CardNumberPool} above its low-water mark. A run on a full pool is a single count query.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardNumberPoolRefillJob {
+
+    private final CardNumberPool cardNumberPool;
+
+    @Scheduled(fixedDelayString = "${card.number-pool.refill-interval:5s}")
+    public void refill() {
+        cardNumberPool.refill();
+    }
+}
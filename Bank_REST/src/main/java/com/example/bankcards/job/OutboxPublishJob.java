@@ -0,0 +1,37 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the transfer outbox in batches. Several instances can run it at once, each claims different rows.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPublishJob {
+
+    private final OutboxService outboxService;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:1s}")
+    public void publishPending() {
+        // Keep draining only while whole batches go out; a failure waits for the next poll
+        int published;
+        do {
+            published = outboxService.publishPending(batchSize);
+        } while (published == batchSize);
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 0 3 * * *}")
+    public void purgePublished() {
+        int purged = outboxService.purgePublished();
+        log.info("Purged {} published outbox events", purged);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.config.ReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-probes the read replicas, so a lagging or unreachable one leaves the rotation and a recovered one
+ * rejoins it. Does nothing when no replicas are configured.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReplicaHealthCheckJob {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval:5s}")
+    public void checkReplicas() {
+        replicaRoutingDataSource.checkHealth();
+    }
+}
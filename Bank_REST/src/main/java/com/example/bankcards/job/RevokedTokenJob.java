@@ -0,0 +1,31 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.security.TokenRevocationList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pulls revocations made on other instances into {@link TokenRevocationList} and drops rows whose tokens have expired.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RevokedTokenJob {
+
+    private final TokenRevocationList revocationList;
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:30s}")
+    public void refresh() {
+        revocationList.refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:1h}")
+    public void purgeExpired() {
+        int purged = revocationList.purgeExpired();
+        if (purged > 0) {
+            log.info("Purged {} expired revoked tokens", purged);
+        }
+    }
+}
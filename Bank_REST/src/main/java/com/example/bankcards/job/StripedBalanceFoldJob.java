@@ -0,0 +1,32 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.StripedBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Folds credits collected in striped cards' slots back into {@code cards.balance}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StripedBalanceFoldJob {
+
+    private final StripedBalanceService stripedBalanceService;
+
+    @Scheduled(fixedDelayString = "${card.striping.fold-interval:5s}")
+    public void foldPendingCredits() {
+        stripedBalanceService.refresh();
+        for (UUID cardId : stripedBalanceService.cardsWithPendingCredits()) {
+            try {
+                stripedBalanceService.fold(cardId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to fold striped balance for card [{}]: {}", cardId, e.getMessage());
+            }
+        }
+    }
+}
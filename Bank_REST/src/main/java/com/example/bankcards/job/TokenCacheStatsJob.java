@@ -0,0 +1,32 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.security.JwtUtil;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the verified-token cache hit ratio for the last interval, skipping intervals without requests.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenCacheStatsJob {
+
+    private final JwtUtil jwtUtil;
+
+    private CacheStats previous = CacheStats.empty();
+
+    @Scheduled(fixedDelayString = "${jwt.cache.stats-interval:5m}", initialDelayString = "${jwt.cache.stats-interval:5m}")
+    public void logStats() {
+        CacheStats current = jwtUtil.tokenCacheStats();
+        CacheStats interval = current.minus(previous);
+        previous = current;
+        if (interval.requestCount() > 0) {
+            log.info("Token cache: {} lookups, hit ratio {}, {} evictions",
+                    interval.requestCount(), String.format("%.3f", interval.hitRate()), interval.evictionCount());
+        }
+    }
+}
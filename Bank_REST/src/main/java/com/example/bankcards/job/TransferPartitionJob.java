@@ -0,0 +1,29 @@
+package com.example.bankcards.job;
+
+import com.example.bankcards.service.TransferPartitionManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code transfers} partitioned ahead of time, checking once at startup so a long-stopped instance does
+ * not wait for the next run, then daily together with archiving of expired months.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferPartitionJob {
+
+    private final TransferPartitionManager partitionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createOnStartup() {
+        partitionManager.maintain(false);
+    }
+
+    @Scheduled(cron = "${transfer.partitions.cron:0 30 2 * * *}")
+    public void maintainPartitions() {
+        partitionManager.maintain(true);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.bankcards.migration;
+
+import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import com.example.bankcards.util.FingerprintUtil;
+import com.example.bankcards.util.FingerprintUtilImpl;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Replaces the unkeyed SHA-256 values in {@code cards.card_number_fingerprint} with HMAC fingerprints,
+ * walking the table in id order {@link #BATCH_SIZE} rows at a time.
+ */
+public class CardNumberFingerprintRekey implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String SELECT_BATCH =
+            "SELECT id, card_number, card_number_cipher FROM cards WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_ROW =
+            "UPDATE cards SET card_number_fingerprint = ? WHERE id = ?";
+
+    private String encryptionKey;
+    private String encryptionKeys;
+    private String fingerprintKey;
+
+    private int updated;
+
+    public void setEncryptionKey(String encryptionKey) {
+        this.encryptionKey = encryptionKey;
+    }
+
+    public void setEncryptionKeys(String encryptionKeys) {
+        this.encryptionKeys = encryptionKeys;
+    }
+
+    public void setFingerprintKey(String fingerprintKey) {
+        this.fingerprintKey = fingerprintKey;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        EncryptionUtil encryptionUtil = new EncryptionUtilImpl(encryptionKey, encryptionKeys);
+        FingerprintUtil fingerprintUtil = new FingerprintUtilImpl(fingerprintKey);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BATCH);
+             PreparedStatement update = connection.prepareStatement(UPDATE_ROW)) {
+            UUID after = new UUID(0, 0);
+            int batch;
+            do {
+                batch = 0;
+                select.setObject(1, after);
+                select.setInt(2, BATCH_SIZE);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        byte[] cipher = rows.getBytes("card_number_cipher");
+                        String raw = cipher != null
+                                ? encryptionUtil.decryptBinary(cipher)
+                                : encryptionUtil.decrypt(rows.getString("card_number"));
+                        after = rows.getObject("id", UUID.class);
+                        update.setString(1, fingerprintUtil.fingerprint(raw));
+                        update.setObject(2, after);
+                        update.addBatch();
+                        batch++;
+                    }
+                }
+                if (batch > 0) {
+                    update.executeBatch();
+                    updated += batch;
+                }
+            } while (batch == BATCH_SIZE);
+        } catch (SQLException | RuntimeException e) {
+            throw new CustomChangeException("Failed to re-key card_number_fingerprint", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Re-keyed card_number_fingerprint for " + updated + " cards";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            errors.addError("encryptionKey is required to decrypt existing card numbers");
+        }
+        if (fingerprintKey == null || fingerprintKey.isBlank()) {
+            errors.addError("fingerprintKey is required to compute the new fingerprints");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.bankcards.migration;
+
+import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.SetupException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills {@code cards.card_number_last4} for rows created before the column existed by decrypting
+ * their card numbers, {@link #BATCH_SIZE} rows at a time.
+ */
+public class CardNumberLast4Backfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String SELECT_BATCH =
+            "SELECT id, card_number FROM cards WHERE card_number_last4 IS NULL ORDER BY id LIMIT ?";
+    private static final String UPDATE_ROW =
+            "UPDATE cards SET card_number_last4 = ? WHERE id = ?";
+
+    private String encryptionKey;
+
+    private int updated;
+
+    public void setEncryptionKey(String encryptionKey) {
+        this.encryptionKey = encryptionKey;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        EncryptionUtil encryptionUtil = new EncryptionUtilImpl(encryptionKey);
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BATCH);
+             PreparedStatement update = connection.prepareStatement(UPDATE_ROW)) {
+            int batch;
+            do {
+                List<UUID> ids = new ArrayList<>(BATCH_SIZE);
+                List<String> cipherTexts = new ArrayList<>(BATCH_SIZE);
+                select.setInt(1, BATCH_SIZE);
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        ids.add(rows.getObject("id", UUID.class));
+                        cipherTexts.add(rows.getString("card_number"));
+                    }
+                }
+                batch = ids.size();
+                if (batch > 0) {
+                    List<String> numbers = encryptionUtil.decryptAll(cipherTexts);
+                    for (int i = 0; i < batch; i++) {
+                        String raw = numbers.get(i);
+                        update.setString(1, raw.substring(Math.max(0, raw.length() - 4)));
+                        update.setObject(2, ids.get(i));
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                    updated += batch;
+                }
+            } while (batch == BATCH_SIZE);
+        } catch (SQLException | RuntimeException e) {
+            throw new CustomChangeException("Failed to backfill card_number_last4", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled card_number_last4 for " + updated + " cards";
+    }
+
+    @Override
+    public void setUp() throws SetupException {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        ValidationErrors errors = new ValidationErrors();
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            errors.addError("encryptionKey is required to decrypt existing card numbers");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CardBalanceSlotRepository extends JpaRepository<CardBalanceSlot, UUID> {
+
+    /**
+     * Credits one slot if the card is active and owned by {@code ownerId} and returns the last four digits of
+     * the card number; the card row itself is not locked.
+     */
+    @Query(value = "UPDATE card_balance_slots s SET balance = s.balance + :amount " +
+            "FROM cards c WHERE s.card_id = :cardId AND s.slot = :slot " +
+            "AND c.id = :cardId AND c.user_id = :ownerId AND c.card_status = 'ACTIVE' " +
+            "RETURNING c.card_number_last4",
+            nativeQuery = true)
+    Optional<String> creditIfActive(@Param("cardId") UUID cardId, @Param("slot") int slot,
+                                    @Param("ownerId") UUID ownerId, @Param("amount") BigDecimal amount);
+
+    /**
+     * Zeroes every slot of the card and returns what they held. Callers must hold the card row lock.
+     */
+    @Query(value = "WITH drained AS (" +
+            "UPDATE card_balance_slots s SET balance = 0 " +
+            "FROM (SELECT id, balance FROM card_balance_slots WHERE card_id = :cardId AND balance <> 0 FOR UPDATE) old " +
+            "WHERE s.id = old.id RETURNING old.balance AS amount) " +
+            "SELECT COALESCE(SUM(amount), 0) FROM drained",
+            nativeQuery = true)
+    BigDecimal drain(@Param("cardId") UUID cardId);
+
+    /**
+     * Locks every slot of the card, empty ones included: {@link #drain} only locks slots holding a balance, so
+     * a credit could still land in an empty slot that is about to be deleted.
+     */
+    @Query(value = "SELECT id FROM card_balance_slots WHERE card_id = :cardId FOR UPDATE", nativeQuery = true)
+    List<UUID> lockAllByCardId(@Param("cardId") UUID cardId);
+
+    @Query("SELECT DISTINCT s.cardId FROM CardBalanceSlot s WHERE s.balance <> 0")
+    List<UUID> findCardIdsWithPendingCredits();
+
+    @Modifying
+    @Query("DELETE FROM CardBalanceSlot s WHERE s.cardId = :cardId")
+    void deleteByCardId(@Param("cardId") UUID cardId);
+}
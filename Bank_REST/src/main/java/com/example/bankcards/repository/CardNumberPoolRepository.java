@@ -0,0 +1,19 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.CardNumberPoolEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CardNumberPoolRepository extends JpaRepository<CardNumberPoolEntry, UUID> {
+
+    /**
+     * Locks the oldest pooled number. Entries held by concurrent claims are skipped, so parallel
+     * issuances never queue behind each other.
+     */
+    @Query(value = "SELECT * FROM card_number_pool ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<CardNumberPoolEntry> lockNext();
+}
@@ -1,20 +1,177 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.CardSummaryDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CardRepository extends JpaRepository<Card, UUID> {
-    Page<Card> findByUserId(UUID userId, Pageable pageable);
-    Page<Card> findByUserIdAndCardStatus(UUID userId, CardStatus cardStatus, Pageable pageable);
     boolean existsByUserId(UUID userId);
 
-    Page<Card> findByCardStatus(CardStatus status, Pageable pageable);
-
     boolean existsByCardNumberFingerprint(String cardNumberFingerprint);
+
+    /**
+     * Which of the given fingerprints are already taken by a card or reserved in {@code card_number_pool},
+     * checked in one {@code IN (...)} query per table.
+     */
+    @Query(value = "SELECT card_number_fingerprint FROM cards WHERE card_number_fingerprint IN (:fingerprints) " +
+            "UNION ALL SELECT card_number_fingerprint FROM card_number_pool WHERE card_number_fingerprint IN (:fingerprints)",
+            nativeQuery = true)
+    List<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    /**
+     * Every fingerprint in use, issued to a card or reserved in {@code card_number_pool}.
+     */
+    @Query(value = "SELECT card_number_fingerprint FROM cards " +
+            "UNION ALL SELECT card_number_fingerprint FROM card_number_pool",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<String> streamAllFingerprints();
+
+    List<Card> findByBalanceSlotsGreaterThan(int balanceSlots);
+
+    /**
+     * Card balance plus the slot credits not folded into it yet, read in one statement so a fold committing
+     * in between can neither double-count nor drop them.
+     */
+    @Query(value = "SELECT c.balance + COALESCE((SELECT SUM(s.balance) FROM card_balance_slots s " +
+            "WHERE s.card_id = c.id), 0) FROM cards c WHERE c.id = :id",
+            nativeQuery = true)
+    Optional<BigDecimal> findBalanceWithPendingCreditsById(@Param("id") UUID id);
+
+    @Query("SELECT c.balanceSlots FROM Card c WHERE c.id = :id")
+    Optional<Integer> findBalanceSlotsById(@Param("id") UUID id);
+
+    /*
+     * Listing queries project straight into CardSummaryDTO with the owner joined in, so a page costs one
+     * select (plus the count for offset pages) instead of one extra users lookup per card.
+     */
+    String SUMMARY_SELECT = "SELECT new com.example.bankcards.dto.CardSummaryDTO(" +
+            "c.id, u.fullName, c.cardNumberLast4, c.expirationDate, c.cardStatus, c.balance, c.createdAt) " +
+            "FROM Card c JOIN c.user u ";
+
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(c) FROM Card c")
+    Page<CardSummaryDTO> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE c.cardStatus = :status",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.cardStatus = :status")
+    Page<CardSummaryDTO> findSummariesByCardStatus(@Param("status") CardStatus status, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE u.id = :userId",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId")
+    Page<CardSummaryDTO> findSummariesByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE u.id = :userId AND c.cardStatus = :status",
+            countQuery = "SELECT COUNT(c) FROM Card c WHERE c.user.id = :userId AND c.cardStatus = :status")
+    Page<CardSummaryDTO> findSummariesByUserIdAndCardStatus(@Param("userId") UUID userId,
+                                                            @Param("status") CardStatus status,
+                                                            Pageable pageable);
+
+    /*
+     * Keyset pages ordered by (created_at, id). Each query seeks straight to the cursor through the
+     * matching index instead of scanning and discarding OFFSET rows, and none of them runs a count.
+     */
+    @Query(SUMMARY_SELECT + "WHERE (c.createdAt, c.id) > (:createdAt, :id) ORDER BY c.createdAt, c.id")
+    List<CardSummaryDTO> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE c.cardStatus = :status AND (c.createdAt, c.id) > (:createdAt, :id) " +
+            "ORDER BY c.createdAt, c.id")
+    List<CardSummaryDTO> findSummariesByCardStatusAfter(@Param("status") CardStatus status,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") UUID id,
+                                                        Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND (c.createdAt, c.id) > (:createdAt, :id) " +
+            "ORDER BY c.createdAt, c.id")
+    List<CardSummaryDTO> findSummariesByUserIdAfter(@Param("userId") UUID userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") UUID id,
+                                                    Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE u.id = :userId AND c.cardStatus = :status " +
+            "AND (c.createdAt, c.id) > (:createdAt, :id) ORDER BY c.createdAt, c.id")
+    List<CardSummaryDTO> findSummariesByUserIdAndCardStatusAfter(@Param("userId") UUID userId,
+                                                                 @Param("status") CardStatus status,
+                                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                                 @Param("id") UUID id,
+                                                                 Limit limit);
+
+    /**
+     * Claims cards whose number is still in the text ciphertext format, skipping rows other transactions hold.
+     */
+    @Query(value = "SELECT * FROM cards WHERE card_number_cipher IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Card> findLegacyCardNumbersForUpdate(@Param("limit") int limit);
+
+    /**
+     * Next chunk of binary card numbers not encrypted with {@code keyId}, in id order after {@code after}.
+     * Rows locked by live transactions are skipped; the rotation picks them up on its verification pass.
+     */
+    @Query(value = "SELECT * FROM cards WHERE id > :after AND card_number_cipher IS NOT NULL " +
+            "AND get_byte(card_number_cipher, 0) <> :keyId ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Card> findCardNumbersToReEncrypt(@Param("after") UUID after,
+                                          @Param("keyId") int keyId,
+                                          @Param("limit") int limit);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM cards WHERE card_number_cipher IS NOT NULL " +
+            "AND get_byte(card_number_cipher, 0) <> :keyId)",
+            nativeQuery = true)
+    boolean existsCardNumberNotEncryptedWith(@Param("keyId") int keyId);
+
+    /**
+     * Locks the given cards with {@code SELECT ... FOR UPDATE}. Rows are locked in id order,
+     * so two transactions locking overlapping sets always acquire them in the same sequence.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Debits an active card owned by {@code ownerId} in one statement and returns what the transfer response
+     * and ledger need; empty when the card is missing, foreign, inactive or short of funds. Pending entity
+     * changes are flushed first so the update sees them.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "ALWAYS"))
+    @Query(value = "UPDATE cards SET balance = balance - :amount " +
+            "WHERE id = :id AND user_id = :ownerId AND card_status = 'ACTIVE' AND balance >= :amount " +
+            "RETURNING balance, card_number_last4 AS \"cardNumberLast4\"",
+            nativeQuery = true)
+    Optional<BalanceAfterUpdate> debitIfActive(@Param("id") UUID id, @Param("ownerId") UUID ownerId,
+                                               @Param("amount") BigDecimal amount);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "ALWAYS"))
+    @Query(value = "UPDATE cards SET balance = balance + :amount " +
+            "WHERE id = :id AND user_id = :ownerId AND card_status = 'ACTIVE' " +
+            "RETURNING balance, card_number_last4 AS \"cardNumberLast4\"",
+            nativeQuery = true)
+    Optional<BalanceAfterUpdate> creditIfActive(@Param("id") UUID id, @Param("ownerId") UUID ownerId,
+                                                @Param("amount") BigDecimal amount);
+
+    interface BalanceAfterUpdate {
+        BigDecimal getBalance();
+
+        String getCardNumberLast4();
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.EncryptionKeyRotation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EncryptionKeyRotationRepository extends JpaRepository<EncryptionKeyRotation, Integer> {
+}
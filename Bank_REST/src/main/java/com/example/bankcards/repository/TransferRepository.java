@@ -2,8 +2,71 @@ package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Transfer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TransferRepository extends JpaRepository<Transfer, UUID> {
+    /*
+     * Resolves the key through transfer_idempotency_keys, whose created_at lets the join prune every partition
+     * but the transfer's own instead of probing each one for the key.
+     */
+    @Query(value = """
+            SELECT t.* FROM transfer_idempotency_keys k
+            JOIN transfers t ON t.id = k.transfer_id AND t.created_at = k.created_at
+            WHERE k.requested_by = :requestedBy AND k.idempotency_key = :idempotencyKey
+            """, nativeQuery = true)
+    Optional<Transfer> findByRequestedByAndIdempotencyKey(@Param("requestedBy") UUID requestedBy,
+                                                          @Param("idempotencyKey") String idempotencyKey);
+
+    /*
+     * Newest-first history of one card, ties broken by id, starting after the cursor. Each branch walks its own
+     * (source_card_id | target_card_id, created_at DESC, id) index from the cursor and stops after :limit rows,
+     * so a page reads at most twice its size however long the card's history is, and partitions newer than
+     * the cursor are pruned.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transfers
+                 WHERE source_card_id = :cardId
+                   AND created_at <= :createdAt AND (created_at < :createdAt OR id > :id)
+                 ORDER BY created_at DESC, id
+                 LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM transfers
+                 WHERE target_card_id = :cardId
+                   AND created_at <= :createdAt AND (created_at < :createdAt OR id > :id)
+                 ORDER BY created_at DESC, id
+                 LIMIT :limit)
+            ) t
+            ORDER BY created_at DESC, id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Transfer> findHistoryByCardIdAfter(@Param("cardId") UUID cardId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            @Param("limit") int limit);
+
+    /**
+     * Claims an Idempotency-Key for a transfer. {@code transfers} is partitioned and cannot enforce the key's
+     * uniqueness itself, so a reused key fails here with a unique violation.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO transfer_idempotency_keys (requested_by, idempotency_key, transfer_id, created_at)
+            VALUES (:requestedBy, :idempotencyKey, :transferId, :createdAt)
+            """, nativeQuery = true)
+    void reserveIdempotencyKey(@Param("requestedBy") UUID requestedBy,
+                               @Param("idempotencyKey") String idempotencyKey,
+                               @Param("transferId") UUID transferId,
+                               @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM transfer_idempotency_keys WHERE created_at < :cutoff", nativeQuery = true)
+    int deleteIdempotencyKeysBefore(@Param("cutoff") LocalDateTime cutoff);
 }
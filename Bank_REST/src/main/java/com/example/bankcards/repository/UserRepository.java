@@ -4,7 +4,12 @@ import com.example.bankcards.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +17,22 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
     Page<User> findByFullNameContainingIgnoreCase(String fullName, Pageable pageable);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = "SELECT * FROM users WHERE (created_at, id) > (:createdAt, :id) " +
+            "ORDER BY created_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<User> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") UUID id,
+                             @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM users WHERE full_name ILIKE CONCAT('%', :fullName, '%') " +
+            "AND (created_at, id) > (:createdAt, :id) ORDER BY created_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<User> findPageByFullNameAfter(@Param("fullName") String fullName,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       @Param("limit") int limit);
 }
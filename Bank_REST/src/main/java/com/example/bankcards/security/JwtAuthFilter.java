@@ -1,11 +1,13 @@
 package com.example.bankcards.security;
 
 import com.example.bankcards.entity.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +23,11 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailServiceImpl userDetailService;
+    private final TokenRevocationList revocationList;
+
+    // Trust the id and role claims instead of loading the user on every request
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal
@@ -32,10 +39,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if(authHeader != null && authHeader.startsWith("Bearer ")){
             final String token = authHeader.substring(7);
 
-            if(jwtUtil.validateToken(token)){
-                String username = jwtUtil.extractUserName(token);
-                UserDetailsImpl userDetails = userDetailService.loadUserByUsername(username);
+            Claims claims = jwtUtil.extractClaims(token);
+            UserDetailsImpl userDetails = null;
+            // A revoked token leaves the request unauthenticated, so secured endpoints answer as for no token
+            if (!revocationList.isRevoked(claims.getId())) {
+                userDetails = statelessPrincipal
+                        ? jwtUtil.principalFrom(claims)
+                        : userDetailService.loadUserByUsername(claims.getSubject());
+            }
 
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                 );
@@ -1,9 +1,16 @@
 package com.example.bankcards.security;
 
 import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDetailsImpl;
 import com.example.bankcards.exception.InvalidJwtToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -12,7 +19,12 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Component
@@ -23,11 +35,27 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize = 10000;
+
     private SecretKey secretKey;
+    private JwtParser parser;
+
+    // Verified claims by SHA-256 of the token, each entry dropped at the token's own exp
+    private Cache<String, Claims> verifiedTokens;
 
     @PostConstruct
     public void init() {
         this.secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.<String, Claims>creating((token, claims) ->
+                        Duration.between(Instant.now(), claims.getExpiration().toInstant())))
+                .recordStats()
+                .build();
     }
 
     public String generateToken
@@ -36,6 +64,7 @@ public class JwtUtil {
         Date expiry = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .claim("id", id.toString())
                 .claim("role", role.getValue())
@@ -48,10 +77,7 @@ public class JwtUtil {
     public boolean validateToken
             (String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+            parse(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             throw new InvalidJwtToken("Invalid or expired token", e);
@@ -61,16 +87,43 @@ public class JwtUtil {
     public Claims extractClaims
             (String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parse(token);
         } catch (JwtException | IllegalArgumentException e) {
             throw new InvalidJwtToken("Invalid claims: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Builds the request principal from the {@code sub}, {@code id} and {@code role} claims, parsing and
+     * verifying the token once. The principal carries no password and nothing is read from the database.
+     */
+    public UserDetailsImpl extractPrincipal
+            (String token) {
+        return principalFrom(extractClaims(token));
+    }
+
+    public UserDetailsImpl principalFrom
+            (Claims claims) {
+        String id = claims.get("id", String.class);
+        String role = claims.get("role", String.class);
+        if (id == null || role == null) {
+            throw new InvalidJwtToken("Token is missing the id or role claim");
+        }
+        try {
+            return new UserDetailsImpl(User.builder()
+                    .id(UUID.fromString(id))
+                    .username(claims.getSubject())
+                    .role(Role.fromString(role))
+                    .build());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidJwtToken("Invalid claims: " + e.getMessage(), e);
+        }
+    }
+
+    public CacheStats tokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
     public String extractUserName(String token) {
         return extractClaims(token).getSubject();
     }
@@ -84,4 +137,28 @@ public class JwtUtil {
         return Role.valueOf(roleString);
     }
 
+    /**
+     * Verifies the signature and expiry once per distinct token; later calls with the same token are served
+     * from the cache until it expires. Tokens without an {@code exp} are never cached.
+     */
+    private Claims parse(String token) {
+        String key = HexFormat.of().formatHex(sha256(token));
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
+    private static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of {@code revoked_tokens}, so checking a token is a hash lookup rather than a query.
+ * Revocations made on this instance apply at once; those from other instances arrive with the next refresh.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationList {
+
+    // Rows committed slightly after a refresh started are picked up by the next one
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final Map<UUID, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastRefresh = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Tokens without a {@code jti}, issued before revocation existed, cannot be revoked and are never reported.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || revoked.isEmpty()) {
+            return false;
+        }
+        try {
+            return revoked.containsKey(UUID.fromString(jti));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public void revoke(String jti, Date expiresAt) {
+        UUID id = UUID.fromString(jti);
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(RevokedToken.builder().jti(id).expiresAt(expiry).build());
+        revoked.put(id, expiry);
+    }
+
+    /**
+     * Adds rows revoked since the previous refresh and forgets tokens that have expired.
+     */
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> tokens = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                lastRefresh.minusSeconds(REFRESH_OVERLAP_SECONDS), now);
+        tokens.forEach(token -> revoked.put(token.getJti(), token.getExpiresAt()));
+        revoked.values().removeIf(expiry -> expiry.isBefore(now));
+        lastRefresh = now;
+    }
+
+    @Transactional
+    public int purgeExpired() {
+        return revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+    }
+}
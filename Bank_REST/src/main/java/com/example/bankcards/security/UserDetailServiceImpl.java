@@ -1,16 +1,19 @@
 package com.example.bankcards.security;
 
+import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.UserDetailsImpl;
 import com.example.bankcards.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailServiceImpl implements UserDetailsService {
+public class UserDetailServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
@@ -18,4 +21,17 @@ public class UserDetailServiceImpl implements UserDetailsService {
         return userRepository.findByUsername(username).map(UserDetailsImpl::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash uses a different
+     * BCrypt cost than configured, with the password rehashed at the configured cost.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        entity.setPassword(newPassword);
+        return new UserDetailsImpl(userRepository.save(entity));
+    }
 }
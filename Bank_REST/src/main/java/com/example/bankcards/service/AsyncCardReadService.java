@@ -0,0 +1,111 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Card reads for polling clients, served on a small fixed pool instead of the request thread. The servlet
+ * thread is handed back as soon as the read is queued, and a listing holds a JDBC connection only while one
+ * page is read, not while the client downloads it. Work runs under the caller's security context, so the
+ * ownership checks of {@link CardService} apply unchanged.
+ */
+@Component
+@Slf4j
+public class AsyncCardReadService {
+
+    private final CardService cardService;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+
+    @Value("${card.async.page-size:100}")
+    private int pageSize = 100;
+
+    @Value("${card.async.stream-timeout:30s}")
+    private Duration streamTimeout = Duration.ofSeconds(30);
+
+    public AsyncCardReadService(
+            CardService cardService,
+            @Value("${card.async.threads:4}") int threads,
+            @Value("${card.async.queue-capacity:1000}") int queueCapacity) {
+        this.cardService = cardService;
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+            Thread thread = new Thread(task, "card-read-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    public CompletableFuture<String> checkBalance(String stringCardId) {
+        try {
+            return CompletableFuture.supplyAsync(() -> cardService.checkBalance(stringCardId), executor);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many card reads in progress, retry later", e);
+        }
+    }
+
+    /**
+     * Writes the current user's cards as one JSON object per line, a page at a time, each page in its own
+     * read-only transaction. Errors after the first line can only abort the stream.
+     */
+    public ResponseBodyEmitter streamCurrentUserCards(String cardStatus) {
+        if (cardStatus != null) {
+            // Reject a bad filter with a 400 before the response is committed
+            CardStatus.fromString(cardStatus);
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeout.toMillis());
+        try {
+            executor.execute(() -> writeCards(emitter, cardStatus));
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Too many card reads in progress, retry later", e);
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void writeCards(ResponseBodyEmitter emitter, String cardStatus) {
+        String cursor = "";
+        try {
+            do {
+                CardPageDTO page = cardService.listAllCardForCurrentUserAfter(cardStatus, cursor, pageSize);
+                for (CardDTO card : page.content()) {
+                    emitter.send(card, MediaType.APPLICATION_JSON);
+                    emitter.send("\n", MediaType.TEXT_PLAIN);
+                }
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            emitter.complete();
+        } catch (IOException e) {
+            // Client went away; the container already knows
+            log.debug("Card stream closed by client: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Card stream failed", e);
+            emitter.completeWithError(e);
+        }
+    }
+}
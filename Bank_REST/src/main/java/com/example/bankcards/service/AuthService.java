@@ -6,4 +6,9 @@ import com.example.bankcards.dto.RegistrationRequestDTO;
 public interface AuthService {
     void register(RegistrationRequestDTO dto);
     String login(LoginRequestDTO dto);
+
+    /**
+     * Revokes the given token until its expiry.
+     */
+    void logout(String token);
 }
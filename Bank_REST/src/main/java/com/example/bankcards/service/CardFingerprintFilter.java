@@ -0,0 +1,72 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over every {@code card_number_fingerprint}. A negative answer means the number
+ * was never issued, so card generation can skip the database lookup; the unique index still guards
+ * against numbers issued by other instances since startup.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CardFingerprintFilter {
+
+    private final CardRepository cardRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${card.fingerprint.bloom.expected-insertions:1000000}")
+    private long expectedInsertions = 1_000_000;
+
+    @Value("${card.fingerprint.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate = 0.001;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+
+    /**
+     * Streams the fingerprint column into a fresh filter. Numbers issued while loading are added
+     * to the same filter, and every lookup reports "maybe" until the load is finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loaded = false;
+        filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        AtomicLong count = new AtomicLong();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            try (Stream<String> fingerprints = cardRepository.streamAllFingerprints()) {
+                fingerprints.forEach(fingerprint -> {
+                    filter.put(fingerprint);
+                    count.incrementAndGet();
+                });
+            }
+        });
+        loaded = true;
+        log.info("Loaded {} card fingerprints into the Bloom filter", count.get());
+    }
+
+    public boolean mightContain(String fingerprint) {
+        return !loaded || filter.mightContain(fingerprint);
+    }
+
+    public void add(String fingerprint) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(fingerprint);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCreateCardsResponseDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface CardIssuanceService {
+
+    /**
+     * Issues {@code cardsPerUser} active cards to every listed user. Cards are written in chunks,
+     * each in its own transaction, so a failure leaves earlier chunks issued; it is reported as a
+     * {@link com.example.bankcards.exception.BulkIssuanceException} carrying the issued count.
+     */
+    BulkCreateCardsResponseDTO issueCards(List<String> stringUserIds, int cardsPerUser, BigDecimal initialBalance);
+}
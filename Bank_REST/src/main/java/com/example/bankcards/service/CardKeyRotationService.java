@@ -0,0 +1,11 @@
+package com.example.bankcards.service;
+
+public interface CardKeyRotationService {
+
+    /**
+     * Re-encrypts the next chunk of card numbers with the active key, continuing from the stored position.
+     *
+     * @return the number of cards re-encrypted, 0 once the rotation to the active key is complete
+     */
+    int rotateChunk(int chunkSize);
+}
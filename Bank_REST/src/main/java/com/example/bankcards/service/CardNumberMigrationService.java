@@ -0,0 +1,11 @@
+package com.example.bankcards.service;
+
+public interface CardNumberMigrationService {
+
+    /**
+     * Rewrites up to {@code batchSize} card numbers from the text ciphertext format to the binary one.
+     *
+     * @return the number of cards migrated
+     */
+    int migrateBatch(int batchSize);
+}
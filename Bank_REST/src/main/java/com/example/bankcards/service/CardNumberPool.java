@@ -0,0 +1,114 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.CardNumberPoolEntry;
+import com.example.bankcards.repository.CardNumberPoolRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
+import com.example.bankcards.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pre-generated card numbers kept in {@code card_number_pool}, so issuing a card costs one locked row
+ * instead of generation, fingerprint lookups and encryption on the request path.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CardNumberPool {
+
+    private static final int MAX_STALE_ENTRIES_PER_CLAIM = 10;
+
+    private final CardNumberPoolRepository poolRepository;
+    private final CardRepository cardRepository;
+    private final UniqueCardNumberGenerator generator;
+    private final EncryptionUtil encryptionUtil;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${card.number-pool.target-size:1000}")
+    private int targetSize = 1000;
+
+    @Value("${card.number-pool.low-water-mark:200}")
+    private int lowWaterMark = 200;
+
+    @Value("${card.number-pool.refill-chunk-size:200}")
+    private int refillChunkSize = 200;
+
+    /**
+     * Takes the oldest pooled number within the caller's transaction: the entry is deleted together with
+     * the card insert and stays pooled if that rolls back. Entries whose number has been issued since they
+     * were pooled (by bulk issuance, for instance) are discarded on the way, so one stale entry cannot fail
+     * every issuance behind it. Generates a number when the pool is empty.
+     */
+    @Transactional
+    public GeneratedCardNumber claim() {
+        for (int stale = 0; stale < MAX_STALE_ENTRIES_PER_CLAIM; stale++) {
+            Optional<CardNumberPoolEntry> next = poolRepository.lockNext();
+            if (next.isEmpty()) {
+                log.warn("Card number pool is empty, generating a number on the request path");
+                return generator.generate(1).get(0);
+            }
+            CardNumberPoolEntry entry = next.get();
+            poolRepository.delete(entry);
+
+            if (cardRepository.existsByCardNumberFingerprint(entry.getCardNumberFingerprint())) {
+                // Flush so the next lockNext cannot return the row this transaction already holds
+                poolRepository.flush();
+                log.warn("Discarded pooled card number [{}], it was issued after being pooled", entry.getId());
+                continue;
+            }
+
+            byte[] cipher = entry.getCardNumberCipher();
+            // Entries pooled before a key rotation are moved to the active key on the way out
+            if (encryptionUtil.keyIdOf(cipher) != encryptionUtil.activeKeyId()) {
+                cipher = encryptionUtil.encryptBinary(encryptionUtil.decryptBinary(cipher));
+            }
+            return new GeneratedCardNumber(cipher, entry.getCardNumberFingerprint(), entry.getCardNumberLast4());
+        }
+        log.warn("Card number pool returned {} stale entries in a row, generating a number on the request path",
+                MAX_STALE_ENTRIES_PER_CLAIM);
+        return generator.generate(1).get(0);
+    }
+
+    /**
+     * Tops the pool up to the target size once it is below the low-water mark, one transaction per chunk.
+     * Instances refilling at the same time can overshoot the target, which only means a larger pool.
+     */
+    public int refill() {
+        long size = poolRepository.count();
+        if (size >= lowWaterMark) {
+            return 0;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int missing = (int) (targetSize - size);
+        int added = 0;
+        while (added < missing) {
+            List<CardNumberPoolEntry> entries = generator.generate(Math.min(refillChunkSize, missing - added)).stream()
+                    .map(number -> CardNumberPoolEntry.builder()
+                            .cardNumberCipher(number.encryptedNumber())
+                            .cardNumberFingerprint(number.fingerprint())
+                            .cardNumberLast4(number.last4())
+                            .build())
+                    .toList();
+            try {
+                tx.executeWithoutResult(status -> poolRepository.saveAll(entries));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent writer took one of the numbers; the chunk rolled back, the next run draws again
+                log.warn("Card number collision while refilling the pool, {} of {} numbers added", added, missing);
+                return added;
+            }
+            added += entries.size();
+        }
+        log.info("Refilled the card number pool with {} numbers", added);
+        return added;
+    }
+}
@@ -1,37 +1,62 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.dto.BatchTransferResponseDTO;
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.dto.TransferHistoryPageDTO;
 import com.example.bankcards.dto.TransferRequestDTO;
 import com.example.bankcards.dto.TransferResponseDTO;
 import lombok.NonNull;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 
 public interface CardService {
 
     CardPageDTO listAllCards(String cardStatus, int page, int size);
 
+    /**
+     * Cursor mode of {@link #listAllCards}: returns up to {@code size} cards after the {@code after} token
+     * (blank for the first page) and skips the count query, so totals are reported as -1.
+     */
+    CardPageDTO listAllCardsAfter(String cardStatus, String after, int size);
+
     public CardDTO getCardByIdWithoutMasking(String stringCardId);
 
     CardPageDTO getCardsByUserId(String stringUserId, String cardStatus, int page, int size);
 
+    CardPageDTO getCardsByUserIdAfter(String stringUserId, String cardStatus, String after, int size);
+
     CardDTO getCardByIdAsAdmin(String stringCardId);
 
     CardDTO createCardAsAdmin(String stringUserId, BigDecimal initialBalance);
 
     void updateCardStatus(String stringCardId, String newStatus);
 
+    void updateBalanceSlots(String stringCardId, int slots);
+
     void deleteCard(String stringCardId);
 
     CardPageDTO listAllCardForCurrentUser(String cardStatus, int page, int size);
 
+    CardPageDTO listAllCardForCurrentUserAfter(String cardStatus, String after, int size);
+
     CardDTO getCardById(String stringCardId);
 
     void requestBlockCard(String stringCardId);
 
     TransferResponseDTO transfer(TransferRequestDTO dto);
 
+    TransferResponseDTO transfer(TransferRequestDTO dto, String idempotencyKey);
+
+    BatchTransferResponseDTO transferBatch(List<TransferRequestDTO> requests);
+
     String checkBalance(@NonNull String stringCardId);
+
+    /**
+     * Incoming and outgoing transfers of one of the current user's cards, newest first, {@code size} at a time
+     * after the {@code after} token (blank for the first page).
+     */
+    TransferHistoryPageDTO listTransfers(String stringCardId, String after, int size);
 }
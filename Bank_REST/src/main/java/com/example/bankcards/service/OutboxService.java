@@ -0,0 +1,23 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Transfer;
+
+import java.util.List;
+
+public interface OutboxService {
+
+    /**
+     * Adds a transfer event per transfer to the outbox, inside the caller's transaction.
+     */
+    void recordTransfers(List<Transfer> transfers);
+
+    /**
+     * Publishes up to {@code batchSize} pending events. A failed event backs off before its next attempt and is
+     * dead-lettered after {@code outbox.max-attempts}.
+     *
+     * @return the number of events published in this run
+     */
+    int publishPending(int batchSize);
+
+    int purgePublished();
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Remembers users who just moved money, so their reads stay on the primary for a short window instead of
+ * going to a replica that may not have replayed the transfer yet. A zero window turns this off.
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(
+            @Value("${datasource.replicas.read-your-writes-window:5s}") Duration window,
+            @Value("${datasource.replicas.read-your-writes-max-users:100000}") long maxUsers) {
+        this.recentWriters = window.isZero()
+                ? null
+                : Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maxUsers).build();
+    }
+
+    public void recordWrite(UUID userId) {
+        if (recentWriters != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean currentUserNeedsPrimary() {
+        if (recentWriters == null) {
+            return false;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.getPrincipal() instanceof UserDetailsImpl user
+                && recentWriters.getIfPresent(user.getId()) != null;
+    }
+}
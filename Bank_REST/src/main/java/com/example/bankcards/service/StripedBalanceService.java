@@ -0,0 +1,46 @@
+package com.example.bankcards.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Striped balances for high-contention cards: credits land in one of N slot rows picked by hash,
+ * so concurrent inbound transfers don't serialize on the card row.
+ */
+public interface StripedBalanceService {
+
+    boolean isStriped(UUID cardId);
+
+    /**
+     * Credits a slot of a striped card if it is active and owned by {@code ownerId}. When no slot matches, the
+     * card's slot count is re-read, so a card unstriped on another instance is no longer {@link #isStriped}
+     * afterwards and can be credited directly.
+     *
+     * @return the last four digits of the card number, empty when no slot was updated
+     */
+    Optional<String> credit(UUID cardId, UUID ownerId, UUID sourceCardId, BigDecimal amount);
+
+    /**
+     * Empties the card's slots and returns their total. The caller must already hold the card row lock.
+     */
+    BigDecimal drain(UUID cardId);
+
+    /**
+     * Locks the card and moves its slot balances into {@code Card.balance}.
+     */
+    void fold(UUID cardId);
+
+    List<UUID> cardsWithPendingCredits();
+
+    /**
+     * Sets the slot count of a card; 0 folds and removes its slots.
+     */
+    void configureSlots(UUID cardId, int slots);
+
+    /**
+     * Reloads which cards are striped, picking up changes made on other instances.
+     */
+    void refresh();
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Size- and time-bounded cache of completed transfers by {@code Idempotency-Key}, so retried requests are
+ * answered without another transfer transaction. The unique index on {@code transfers} stays the source of truth.
+ */
+@Component
+public class TransferIdempotencyCache {
+
+    private final Cache<String, IdempotentTransfer> cache;
+
+    public TransferIdempotencyCache(
+            @Value("${transfer.idempotency.cache-size:10000}") long maximumSize,
+            @Value("${transfer.idempotency.ttl:24h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<IdempotentTransfer> find(UUID userId, String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(cacheKey(userId, idempotencyKey)));
+    }
+
+    public void put(UUID userId, String idempotencyKey, IdempotentTransfer transfer) {
+        cache.put(cacheKey(userId, idempotencyKey), transfer);
+    }
+
+    /**
+     * Caches the transfer only once the surrounding transaction commits, so a rolled back transfer is never replayed.
+     */
+    public void putAfterCommit(UUID userId, String idempotencyKey, IdempotentTransfer transfer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(userId, idempotencyKey, transfer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(userId, idempotencyKey, transfer);
+            }
+        });
+    }
+
+    private String cacheKey(UUID userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    public record IdempotentTransfer(
+            UUID fromCardId,
+            UUID toCardId,
+            BigDecimal amount,
+            TransferResponseDTO response
+    ) {
+        public boolean matches(UUID fromCardId, UUID toCardId, BigDecimal amount) {
+            return this.fromCardId.equals(fromCardId)
+                    && this.toCardId.equals(toCardId)
+                    && this.amount.compareTo(amount) == 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.service;
+
+/**
+ * How {@link CardService#transfer} moves money between two cards, selected with {@code transfer.mode}.
+ */
+public enum TransferMode {
+    /**
+     * Locks both card rows with {@code SELECT ... FOR UPDATE}, validates in memory and writes the new balances.
+     */
+    LOCKING,
+
+    /**
+     * Debits and credits with conditional {@code UPDATE} statements; affected row counts drive the error mapping.
+     */
+    CONDITIONAL_UPDATE
+}
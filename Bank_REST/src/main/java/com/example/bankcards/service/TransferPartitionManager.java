@@ -0,0 +1,210 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of {@code transfers} (range-partitioned on {@code created_at}). Partitions
+ * are created {@code months-ahead} in advance; a transfer for a month that has none still lands in the
+ * {@code transfers_default} partition, and is moved into its month once the partition is created. Partitions
+ * older than {@code retention-months} are detached and moved to the archive schema, where they stay queryable
+ * but out of every history scan. {@code DETACH ... CONCURRENTLY} is not allowed next to a default partition,
+ * so each DDL step runs in a short transaction under {@code lock-timeout} rather than queueing behind
+ * long-running reads while holding up every transfer.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TransferPartitionManager {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final String DEFAULT_PARTITION = "transfers_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("transfers_y(\\d{4})m(\\d{2})");
+    private static final String LIST_PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'transfers'::regclass
+            """;
+    // Session lock, so only one instance maintains partitions at a time
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('transfer-partitions'))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('transfer-partitions'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferRepository transferRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${transfer.partitions.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    // 0 keeps every partition attached
+    @Value("${transfer.partitions.retention-months:24}")
+    private int retentionMonths = 24;
+
+    @Value("${transfer.partitions.archive-schema:transfers_archive}")
+    private String archiveSchema = "transfers_archive";
+
+    @Value("${transfer.partitions.lock-timeout:5s}")
+    private Duration lockTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Creates the missing partitions and, when {@code archive} is set, archives the expired ones, unless another
+     * instance is already doing so. The DDL runs on the connection holding the advisory lock, so the lock is
+     * held exactly as long as that connection is doing the work.
+     */
+    public void maintain(boolean archive) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!queryForBoolean(connection, TRY_LOCK_SQL)) {
+                log.info("Transfers partitions are being maintained by another instance, skipping");
+                return null;
+            }
+            try {
+                SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+                Session session = new Session(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+                createFuturePartitions(session);
+                if (archive) {
+                    archiveExpiredPartitions(session);
+                }
+            } finally {
+                queryForBoolean(connection, UNLOCK_SQL);
+            }
+            return null;
+        });
+    }
+
+    int createFuturePartitions(Session session) {
+        Set<String> existing = new HashSet<>(listPartitions(session));
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            try {
+                createPartition(session, month);
+                created++;
+            } catch (DataAccessException e) {
+                log.error("Failed to create transfers partition [{}]", name, e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Detaches every partition that ended before the retention cutoff and moves it to the archive schema,
+     * then drops the Idempotency-Keys of those months. A partition that fails is logged and retried on the
+     * next run without holding up the others or the key purge.
+     */
+    int archiveExpiredPartitions(Session session) {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        JdbcTemplate jdbc = session.jdbcTemplate();
+        int archived = 0;
+        for (String name : listPartitions(session)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                inShortTransaction(session, () -> jdbc.execute("ALTER TABLE transfers DETACH PARTITION " + name));
+                jdbc.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+                jdbc.execute("ALTER TABLE " + name + " SET SCHEMA " + archiveSchema);
+                log.info("Archived transfers partition [{}] to schema [{}]", name, archiveSchema);
+                archived++;
+            } catch (DataAccessException e) {
+                log.error("Failed to archive transfers partition [{}]", name, e);
+            }
+        }
+
+        Integer purged = new TransactionTemplate(transactionManager).execute(status ->
+                transferRepository.deleteIdempotencyKeysBefore(cutoff.atDay(1).atStartOfDay()));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} Idempotency-Keys older than {}", purged, cutoff);
+        }
+        return archived;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "transfers_" + PARTITION_SUFFIX.format(month);
+    }
+
+    /**
+     * Builds the partition as a plain table, moves the month's rows out of the default partition into it and
+     * attaches it, all in one transaction: a partition cannot be created while the default one still holds rows
+     * of its range.
+     */
+    private void createPartition(Session session, YearMonth month) {
+        JdbcTemplate jdbc = session.jdbcTemplate();
+        String name = partitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        inShortTransaction(session, () -> {
+            jdbc.execute("CREATE TABLE " + name + " (LIKE transfers INCLUDING DEFAULTS)");
+            int moved = jdbc.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + name
+                    + " SELECT * FROM moved", from, to);
+            jdbc.execute("ALTER TABLE transfers ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from.toLocalDate() + "') TO ('" + to.toLocalDate() + "')");
+            if (moved > 0) {
+                log.warn("Moved {} transfers from [{}] into the late partition [{}]", moved, DEFAULT_PARTITION, name);
+            }
+        });
+        log.info("Created transfers partition [{}]", name);
+    }
+
+    private void inShortTransaction(Session session, Runnable ddl) {
+        new TransactionTemplate(session.transactionManager()).executeWithoutResult(status -> {
+            session.jdbcTemplate().execute("SET LOCAL lock_timeout = '" + lockTimeout.toMillis() + "ms'");
+            ddl.run();
+        });
+    }
+
+    private List<String> listPartitions(Session session) {
+        return session.jdbcTemplate().queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+
+    private static boolean queryForBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * JDBC access bound to the single connection that holds the maintenance lock.
+     */
+    record Session(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.exception.InternalServerException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberGenerator;
+import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.FingerprintUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Draws card numbers that are not issued or pooled yet, ready to store: encrypted, fingerprinted and with
+ * their last four digits split off. The unique indexes remain the final guard against concurrent writers.
+ */
+@Component
+@RequiredArgsConstructor
+public class UniqueCardNumberGenerator {
+
+    private static final int MAX_ROUNDS = 5;
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final FingerprintUtil fingerprintUtil;
+    private final CardFingerprintFilter fingerprintFilter;
+
+    /**
+     * Returns {@code count} distinct numbers. They are generated, fingerprinted and encrypted on a parallel
+     * stream; only fingerprints the Bloom filter cannot rule out are checked, in one query per round.
+     */
+    public List<GeneratedCardNumber> generate(int count) {
+        Map<String, String> numbersByFingerprint = new LinkedHashMap<>();
+        for (int round = 0; numbersByFingerprint.size() < count; round++) {
+            if (round == MAX_ROUNDS) {
+                throw new InternalServerException("Failed to generate unique card numbers after retries");
+            }
+            Map<String, String> candidates = IntStream.range(0, count - numbersByFingerprint.size())
+                    .parallel()
+                    .mapToObj(i -> CardNumberGenerator.generate())
+                    .collect(Collectors.toMap(fingerprintUtil::fingerprint, Function.identity(), (a, b) -> a));
+            candidates.keySet().removeAll(numbersByFingerprint.keySet());
+
+            List<String> unknown = candidates.keySet().stream().filter(fingerprintFilter::mightContain).toList();
+            if (!unknown.isEmpty()) {
+                cardRepository.findExistingFingerprints(unknown).forEach(candidates::remove);
+            }
+            numbersByFingerprint.putAll(candidates);
+        }
+        numbersByFingerprint.keySet().forEach(fingerprintFilter::add);
+
+        return numbersByFingerprint.entrySet().parallelStream()
+                .map(entry -> new GeneratedCardNumber(
+                        encryptionUtil.encryptBinary(entry.getValue()),
+                        entry.getKey(),
+                        entry.getValue().substring(entry.getValue().length() - 4)))
+                .toList();
+    }
+
+    public record GeneratedCardNumber(byte[] encryptedNumber, String fingerprint, String last4) {
+    }
+}
@@ -8,6 +8,11 @@ import com.example.bankcards.dto.UserPageDTO;
 public interface UserService {
     UserPageDTO getAllUsers(int page, int size, String fullName);
 
+    /**
+     * Cursor mode of {@link #getAllUsers}; totals are not counted and reported as -1.
+     */
+    UserPageDTO getAllUsersAfter(String after, int size, String fullName);
+
     UserDTO getUserById(String userId);
 
     UserDTO createUserByAdmin(UserCreationRequestDTO dto);
@@ -8,7 +8,9 @@ import com.example.bankcards.entity.UserDetailsImpl;
 import com.example.bankcards.exception.InternalServerException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtUtil;
+import com.example.bankcards.security.TokenRevocationList;
 import com.example.bankcards.service.AuthService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,6 +29,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationList revocationList;
 
     @Override
     @Transactional
@@ -60,6 +63,14 @@ public class AuthServiceImpl implements AuthService {
         return jwtUtil.generateToken(principal.getId(), principal.getUsername(), principal.getRole());
     }
 
-
+    @Override
+    public void logout
+            (String token) {
+        Claims claims = jwtUtil.extractClaims(token);
+        if (claims.getId() == null) {
+            throw new IllegalArgumentException("Token has no jti and cannot be revoked");
+        }
+        revocationList.revoke(claims.getId(), claims.getExpiration());
+    }
 
 }
@@ -0,0 +1,151 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.BulkCreateCardsResponseDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.LedgerEntryType;
+import com.example.bankcards.exception.BulkIssuanceException;
+import com.example.bankcards.exception.InternalServerException;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.CardIssuanceService;
+import com.example.bankcards.service.UniqueCardNumberGenerator;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CardIssuanceServiceImpl implements CardIssuanceService {
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final CardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final UniqueCardNumberGenerator cardNumberGenerator;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${card.bulk.max-cards:100000}")
+    private int maxCards = 100_000;
+
+    @Value("${card.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Override
+    public BulkCreateCardsResponseDTO issueCards
+            (List<String> stringUserIds, int cardsPerUser, BigDecimal initialBalance) {
+        if (stringUserIds == null || stringUserIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one user ID is required");
+        }
+        if (cardsPerUser <= 0) {
+            throw new IllegalArgumentException("Cards per user must be positive");
+        }
+        long total = (long) stringUserIds.size() * cardsPerUser;
+        if (total > maxCards) {
+            throw new IllegalArgumentException("At most " + maxCards + " cards can be issued per request");
+        }
+        BigDecimal balance = initialBalance != null ? initialBalance : BigDecimal.ZERO;
+        if (balance.signum() < 0) {
+            throw new IllegalArgumentException("Initial balance cannot be negative");
+        }
+
+        List<UUID> userIds = stringUserIds.stream().map(UUID::fromString).toList();
+        Set<UUID> missing = new HashSet<>(userIds);
+        // Checked a chunk at a time: one IN list for 100k users would exceed the driver's bind parameter limit
+        List<UUID> distinctIds = List.copyOf(missing);
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            missing.removeAll(userRepository.findExistingIds(
+                    distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()))));
+        }
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Users not found with IDs: " + missing);
+        }
+
+        // One owner entry per card, so chunks can split a user's cards
+        List<UUID> owners = new ArrayList<>((int) total);
+        for (UUID userId : userIds) {
+            owners.addAll(Collections.nCopies(cardsPerUser, userId));
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int issued = 0;
+        for (int from = 0; from < owners.size(); from += chunkSize) {
+            List<UUID> chunk = owners.subList(from, Math.min(from + chunkSize, owners.size()));
+            try {
+                issued += issueChunk(tx, chunk, balance);
+            } catch (RuntimeException e) {
+                log.error("Bulk issuance stopped after {} of {} cards", issued, total, e);
+                throw new BulkIssuanceException((int) total, issued, e);
+            }
+        }
+        log.info("Issued {} cards to {} users", issued, userIds.size());
+        return new BulkCreateCardsResponseDTO((int) total, issued);
+    }
+
+    private int issueChunk(TransactionTemplate tx, List<UUID> owners, BigDecimal balance) {
+        for (int attempt = 1; attempt <= MAX_CHUNK_ATTEMPTS; attempt++) {
+            List<GeneratedCardNumber> numbers = cardNumberGenerator.generate(owners.size());
+            try {
+                tx.executeWithoutResult(status -> persist(owners, numbers, balance));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance took one of the numbers after our check; the chunk rolled back, so redraw it
+                log.warn("Card number collision while issuing a chunk of {} cards, attempt {}", owners.size(), attempt);
+                continue;
+            }
+            return owners.size();
+        }
+        throw new InternalServerException("Failed to issue a chunk of unique card numbers after retries");
+    }
+
+    /**
+     * Inserts one chunk; with {@code hibernate.jdbc.batch_size} set the cards and ledger entries go out as
+     * JDBC batches, and owners are referenced by proxy so no user rows are read.
+     */
+    private void persist(List<UUID> owners, List<GeneratedCardNumber> numbers, BigDecimal balance) {
+        LocalDate expirationDate = LocalDate.now().plusYears(3);
+        List<Card> cards = new ArrayList<>(owners.size());
+        for (int i = 0; i < owners.size(); i++) {
+            GeneratedCardNumber number = numbers.get(i);
+            cards.add(Card.builder()
+                    .cardNumberCipher(number.encryptedNumber())
+                    .cardNumberFingerprint(number.fingerprint())
+                    .cardNumberLast4(number.last4())
+                    .cardStatus(CardStatus.ACTIVE)
+                    .user(userRepository.getReferenceById(owners.get(i)))
+                    .expirationDate(expirationDate)
+                    .balance(balance)
+                    .build());
+        }
+        List<Card> saved = cardRepository.saveAll(cards);
+
+        if (balance.signum() != 0) {
+            ledgerEntryRepository.saveAll(saved.stream()
+                    .map(card -> LedgerEntry.builder()
+                            .cardId(card.getId())
+                            .entryType(LedgerEntryType.CREDIT)
+                            .amount(balance)
+                            .balanceAfter(balance)
+                            .build())
+                    .toList());
+        }
+    }
+}
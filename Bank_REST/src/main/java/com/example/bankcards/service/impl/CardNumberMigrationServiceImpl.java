@@ -0,0 +1,35 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.CardNumberMigrationService;
+import com.example.bankcards.util.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CardNumberMigrationServiceImpl implements CardNumberMigrationService {
+
+    private final CardRepository cardRepository;
+    private final EncryptionUtil encryptionUtil;
+
+    @Override
+    @Transactional
+    public int migrateBatch(int batchSize) {
+        List<Card> cards = cardRepository.findLegacyCardNumbersForUpdate(batchSize);
+        if (cards.isEmpty()) {
+            return 0;
+        }
+        List<String> numbers = encryptionUtil.decryptAll(cards.stream().map(Card::getCardNumber).toList());
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
+            card.setCardNumberCipher(encryptionUtil.encryptBinary(numbers.get(i)));
+            card.setCardNumber(null);
+        }
+        return cards.size();
+    }
+}
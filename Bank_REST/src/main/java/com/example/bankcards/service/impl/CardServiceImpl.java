@@ -1,24 +1,45 @@
 package com.example.bankcards.service.impl;
 
+import com.example.bankcards.dto.BatchTransferItemResultDTO;
+import com.example.bankcards.dto.BatchTransferResponseDTO;
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.dto.CardSummaryDTO;
+import com.example.bankcards.dto.TransferHistoryItemDTO;
+import com.example.bankcards.dto.TransferHistoryItemDTO.TransferDirection;
+import com.example.bankcards.dto.TransferHistoryPageDTO;
 import com.example.bankcards.dto.TransferRequestDTO;
 import com.example.bankcards.dto.TransferResponseDTO;
 import com.example.bankcards.entity.Card;
 import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.LedgerEntry;
+import com.example.bankcards.entity.LedgerEntryType;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.entity.UserDetailsImpl;
 import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.ForbiddenRequestException;
-import com.example.bankcards.exception.InternalServerException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.service.CardNumberPool;
 import com.example.bankcards.service.CardService;
+import com.example.bankcards.service.OutboxService;
+import com.example.bankcards.service.ReadYourWritesWindow;
+import com.example.bankcards.service.StripedBalanceService;
+import com.example.bankcards.service.TransferIdempotencyCache;
+import com.example.bankcards.service.TransferIdempotencyCache.IdempotentTransfer;
+import com.example.bankcards.service.TransferMode;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
 import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.PageCursor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,11 +51,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -46,6 +71,23 @@ public class CardServiceImpl implements CardService {
     private final EncryptionUtil encryptionUtil;
     private final UserRepository userRepository;
     private final TransferRepository transferRepository;
+    private final TransferIdempotencyCache idempotencyCache;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final StripedBalanceService stripedBalanceService;
+    private final OutboxService outboxService;
+    private final CardNumberPool cardNumberPool;
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    @Value("${transfer.batch.max-size:10000}")
+    private int maxBatchSize = 10000;
+
+    @Value("${transfer.history.max-page-size:100}")
+    private int maxHistoryPageSize = 100;
+
+    @Value("${transfer.mode:LOCKING}")
+    private TransferMode transferMode = TransferMode.LOCKING;
 
     @Override
     @Transactional(readOnly = true)
@@ -56,9 +98,9 @@ public class CardServiceImpl implements CardService {
         Pageable pageable = PageRequest.of(page, size);
         CardStatus status = cardStatus != null ? CardStatus.fromString(cardStatus) : null;
 
-        Page<Card> cardsPage = (cardStatus != null)
-                ? cardRepository.findByUserIdAndCardStatus(userId, status, pageable)
-                : cardRepository.findByUserId(userId, pageable);
+        Page<CardSummaryDTO> cardsPage = (cardStatus != null)
+                ? cardRepository.findSummariesByUserIdAndCardStatus(userId, status, pageable)
+                : cardRepository.findSummariesByUserId(userId, pageable);
 
         Page<CardDTO> mappedPage = cardsPage.map(this::toDto);
         return CardPageDTO.builder()
@@ -70,6 +112,14 @@ public class CardServiceImpl implements CardService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CardPageDTO listAllCardForCurrentUserAfter
+            (String cardStatus, String after, int size) {
+        UUID userId = getUserIdFromSecurityContext();
+        return cardsAfter(userId, cardStatus, after, size);
+    }
+
 
     @Override
     @Transactional(readOnly = true)
@@ -134,6 +184,13 @@ public class CardServiceImpl implements CardService {
     @Transactional
     public TransferResponseDTO transfer
             (TransferRequestDTO dto) {
+        return transfer(dto, null);
+    }
+
+    @Override
+    @Transactional
+    public TransferResponseDTO transfer
+            (TransferRequestDTO dto, String idempotencyKey) {
         UUID currentUserId = getUserIdFromSecurityContext();
         UUID fromCardId = UUID.fromString((dto.fromCard()));
         UUID toCardId = UUID.fromString(dto.toCard());
@@ -142,46 +199,132 @@ public class CardServiceImpl implements CardService {
             throw new IllegalArgumentException("Source and destination cards must be different.");
         }
 
-        Card fromCard = cardRepository.findById(fromCardId)
-                .orElseThrow(() -> new NotFoundException("Source card not found"));
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+            }
+            Optional<TransferResponseDTO> replay =
+                    findReplay(currentUserId, idempotencyKey, fromCardId, toCardId, dto.amount());
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
 
-        Card toCard = cardRepository.findById(toCardId)
-                .orElseThrow(() -> new NotFoundException("Destination card not found"));
+        TransferParties parties = (transferMode == TransferMode.CONDITIONAL_UPDATE)
+                ? transferWithConditionalUpdates(currentUserId, fromCardId, toCardId, dto.amount())
+                : transferWithRowLocks(currentUserId, fromCardId, toCardId, dto.amount());
 
-        if (!fromCard.getUser().getId().equals(currentUserId) ||
-                !toCard.getUser().getId().equals(currentUserId)) {
-            throw new ForbiddenRequestException("You do not own both cards.");
-        }
+        Transfer transfer = Transfer.builder()
+                .sourceCardId(fromCardId)
+                .targetCardId(toCardId)
+                .amount(dto.amount())
+                .requestedBy(currentUserId)
+                .idempotencyKey(idempotencyKey)
+                .build();
 
-        if (fromCard.getCardStatus() != CardStatus.ACTIVE) {
-            throw new IllegalStateException("Source card is not active.");
+        if (idempotencyKey == null) {
+            transferRepository.save(transfer);
+        } else {
+            try {
+                // Reserve the key now so a concurrent retry with the same key fails here rather than at commit
+                transferRepository.saveAndFlush(transfer);
+                transferRepository.reserveIdempotencyKey(currentUserId, idempotencyKey, transfer.getId(),
+                        transfer.getCreatedAt());
+            } catch (DataIntegrityViolationException e) {
+                throw new ConflictException("A transfer with this Idempotency-Key is already being processed", e);
+            }
         }
+        BigDecimal targetBalanceAfter = stripedBalanceService.isStriped(toCardId)
+                ? null
+                : parties.toCard().getBalance();
+        ledgerEntryRepository.saveAll(ledgerEntriesFor(transfer, parties.fromCard().getBalance(), targetBalanceAfter));
+        outboxService.recordTransfers(List.of(transfer));
+        readYourWritesWindow.recordWrite(currentUserId);
 
-        if (toCard.getCardStatus() != CardStatus.ACTIVE) {
-            throw new IllegalStateException("Destination card is not active.");
+        // Masked card numbers
+        String fromMasked = maskedNumberOf(parties.fromCard());
+        String toMasked = maskedNumberOf(parties.toCard());
+
+        TransferResponseDTO response = new TransferResponseDTO(fromMasked, toMasked, dto.amount(), transfer.getCreatedAt());
+        if (idempotencyKey != null) {
+            idempotencyCache.putAfterCommit(currentUserId, idempotencyKey,
+                    new IdempotentTransfer(fromCardId, toCardId, dto.amount(), response));
         }
+        return response;
+    }
 
-        if (fromCard.getBalance().compareTo(dto.amount()) < 0) {
-            throw new IllegalStateException("Insufficient funds in source card.");
+    @Override
+    @Transactional
+    public BatchTransferResponseDTO transferBatch
+            (List<TransferRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one transfer.");
         }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + maxBatchSize + " transfers.");
+        }
+        UUID currentUserId = getUserIdFromSecurityContext();
 
-        // Transfer
-        fromCard.setBalance(fromCard.getBalance().subtract(dto.amount()));
-        toCard.setBalance(toCard.getBalance().add(dto.amount()));
-        cardRepository.save(fromCard);
-        cardRepository.save(toCard);
+        Set<UUID> cardIds = new HashSet<>();
+        for (TransferRequestDTO request : requests) {
+            parseCardId(request.fromCard()).ifPresent(cardIds::add);
+            parseCardId(request.toCard()).ifPresent(cardIds::add);
+        }
 
-        transferRepository.save(Transfer.builder()
-                .sourceCardId(fromCardId)
-                .targetCardId(toCardId)
-                .amount(dto.amount())
-                .build());
+        // One locking query for every card in the batch, then balances move in memory
+        Map<UUID, Card> cards = cardRepository.findAllByIdForUpdate(cardIds)
+                .stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        cards.values().forEach(this::drainStripedCredits);
+
+        List<BatchTransferItemResultDTO> results = new ArrayList<>(requests.size());
+        List<PendingTransfer> transfers = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequestDTO request = requests.get(i);
+            try {
+                UUID fromCardId = parseCardId(request.fromCard())
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid source card id."));
+                UUID toCardId = parseCardId(request.toCard())
+                        .orElseThrow(() -> new IllegalArgumentException("Invalid destination card id."));
+                if (fromCardId.equals(toCardId)) {
+                    throw new IllegalArgumentException("Source and destination cards must be different.");
+                }
+                if (request.amount() == null || request.amount().signum() <= 0) {
+                    throw new IllegalArgumentException("Amount must be positive.");
+                }
+                Card fromCard = Optional.ofNullable(cards.get(fromCardId))
+                        .orElseThrow(() -> new NotFoundException("Source card not found"));
+                Card toCard = Optional.ofNullable(cards.get(toCardId))
+                        .orElseThrow(() -> new NotFoundException("Destination card not found"));
+
+                applyTransfer(currentUserId, fromCard, toCard, request.amount());
+
+                transfers.add(new PendingTransfer(
+                        Transfer.builder()
+                                .sourceCardId(fromCardId)
+                                .targetCardId(toCardId)
+                                .amount(request.amount())
+                                .requestedBy(currentUserId)
+                                .build(),
+                        fromCard.getBalance(),
+                        toCard.getBalance()));
+                results.add(new BatchTransferItemResultDTO(i, true, null));
+            } catch (IllegalArgumentException | IllegalStateException
+                     | NotFoundException | ForbiddenRequestException e) {
+                results.add(new BatchTransferItemResultDTO(i, false, e.getMessage()));
+            }
+        }
 
-        // Masked card numbers
-        String fromMasked = mask(encryptionUtil.decrypt(fromCard.getCardNumber()));
-        String toMasked = mask(encryptionUtil.decrypt(toCard.getCardNumber()));
+        // Inserts are grouped into JDBC batches (spring.jpa.properties.hibernate.jdbc.batch_size)
+        List<Transfer> saved = transfers.stream().map(PendingTransfer::transfer).toList();
+        transferRepository.saveAll(saved);
+        ledgerEntryRepository.saveAll(transfers.stream()
+                .flatMap(t -> ledgerEntriesFor(t.transfer(), t.sourceBalanceAfter(), t.targetBalanceAfter()).stream())
+                .toList());
+        outboxService.recordTransfers(saved);
+        readYourWritesWindow.recordWrite(currentUserId);
 
-        return new TransferResponseDTO(fromMasked, toMasked, dto.amount(), LocalDateTime.now());
+        return new BatchTransferResponseDTO(transfers.size(), requests.size() - transfers.size(), results);
     }
 
     @Override
@@ -196,9 +339,41 @@ public class CardServiceImpl implements CardService {
             throw new ForbiddenRequestException("Current user doesn't own chosen card");
         }
 
-        return saved.getBalance().toPlainString();
+        BigDecimal balance = stripedBalanceService.isStriped(cardId)
+                ? cardRepository.findBalanceWithPendingCreditsById(cardId).orElse(saved.getBalance())
+                : saved.getBalance();
+        return balance.toPlainString();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TransferHistoryPageDTO listTransfers
+            (String stringCardId, String after, int size) {
+        if (size <= 0 || size > maxHistoryPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxHistoryPageSize);
+        }
+        UUID currentUserId = getUserIdFromSecurityContext();
+        UUID cardId = UUID.fromString(stringCardId);
+
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new NotFoundException("Card not found with ID: " + stringCardId));
+        if (!card.getUser().getId().equals(currentUserId)) {
+            throw new ForbiddenRequestException("Current user doesn't own chosen card");
+        }
+
+        PageCursor cursor = PageCursor.decode(after, PageCursor.END);
+        List<Transfer> transfers =
+                transferRepository.findHistoryByCardIdAfter(cardId, cursor.createdAt(), cursor.id(), size + 1);
+
+        boolean hasNext = transfers.size() > size;
+        List<Transfer> page = hasNext ? transfers.subList(0, size) : transfers;
+        Transfer last = hasNext ? page.get(page.size() - 1) : null;
+        return TransferHistoryPageDTO.builder()
+                .content(page.stream().map(transfer -> toHistoryItem(cardId, transfer)).toList())
+                .size(size)
+                .nextCursor(last != null ? new PageCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
 
     // Admin
     @Override
@@ -208,9 +383,9 @@ public class CardServiceImpl implements CardService {
         Pageable pageable = PageRequest.of(page, size);
         CardStatus status = cardStatus != null ? CardStatus.fromString(cardStatus) : null;
 
-        Page<Card> cardsPage = (status != null)
-                ? cardRepository.findByCardStatus(status, pageable)
-                : cardRepository.findAll(pageable);
+        Page<CardSummaryDTO> cardsPage = (status != null)
+                ? cardRepository.findSummariesByCardStatus(status, pageable)
+                : cardRepository.findSummaries(pageable);
 
         Page<CardDTO> mapped = cardsPage.map(this::toDto);
 
@@ -223,6 +398,13 @@ public class CardServiceImpl implements CardService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CardPageDTO listAllCardsAfter
+            (String cardStatus, String after, int size) {
+        return cardsAfter(null, cardStatus, after, size);
+    }
+
     @Override
     public CardPageDTO getCardsByUserId
             (String stringUserId, String cardStatus, int page, int size) {
@@ -232,9 +414,9 @@ public class CardServiceImpl implements CardService {
                 : null;
 
         UUID userId = UUID.fromString(stringUserId);
-        Page<Card> cards = (status != null)
-                ? cardRepository.findByUserIdAndCardStatus(userId, status, pageable)
-                : cardRepository.findByUserId(userId, pageable);
+        Page<CardSummaryDTO> cards = (status != null)
+                ? cardRepository.findSummariesByUserIdAndCardStatus(userId, status, pageable)
+                : cardRepository.findSummariesByUserId(userId, pageable);
 
         Page<CardDTO> mapped = cards.map(this::toDto);
         return CardPageDTO.builder()
@@ -246,6 +428,13 @@ public class CardServiceImpl implements CardService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CardPageDTO getCardsByUserIdAfter
+            (String stringUserId, String cardStatus, String after, int size) {
+        return cardsAfter(UUID.fromString(stringUserId), cardStatus, after, size);
+    }
+
     @Override
     public CardDTO getCardByIdAsAdmin
             (String stringCardId) {
@@ -263,18 +452,33 @@ public class CardServiceImpl implements CardService {
         User user = userRepository.findById(userId).orElseThrow(
                 () -> new NotFoundException("User not found with ID: " + stringUserId));
 
-        GeneratedCardPayload payload = generateCardPayload();
+        GeneratedCardNumber number = cardNumberPool.claim();
 
         Card card = Card.builder()
-                .cardNumber(payload.encryptedNumber())
-                .cardNumberFingerprint(payload.fingerprint())
+                .cardNumberCipher(number.encryptedNumber())
+                .cardNumberFingerprint(number.fingerprint())
+                .cardNumberLast4(number.last4())
                 .cardStatus(CardStatus.ACTIVE)
                 .user(user)
                 .expirationDate(LocalDate.now().plusYears(3))
                 .balance(initialBalance)
                 .build();
 
-        Card saved = cardRepository.save(card);
+        Card saved;
+        try {
+            // Pooled numbers are checked when generated, the unique index catches anything issued since
+            saved = cardRepository.saveAndFlush(card);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Generated card number is already in use, please retry", e);
+        }
+        if (initialBalance != null && initialBalance.signum() != 0) {
+            ledgerEntryRepository.save(LedgerEntry.builder()
+                    .cardId(saved.getId())
+                    .entryType(LedgerEntryType.CREDIT)
+                    .amount(initialBalance)
+                    .balanceAfter(initialBalance)
+                    .build());
+        }
         return toDto(saved);
     }
 
@@ -296,6 +500,12 @@ public class CardServiceImpl implements CardService {
     }
 
 
+    @Override
+    public void updateBalanceSlots
+            (String stringCardId, int slots) {
+        stripedBalanceService.configureSlots(UUID.fromString(stringCardId), slots);
+    }
+
     @Override
     public void deleteCard
             (String stringCardId) {
@@ -307,11 +517,217 @@ public class CardServiceImpl implements CardService {
     }
 
 
+    private TransferParties transferWithRowLocks
+            (UUID currentUserId, UUID fromCardId, UUID toCardId, BigDecimal amount) {
+        // A striped target is credited through its slots, so its row is not locked
+        boolean stripedTarget = stripedBalanceService.isStriped(toCardId);
+        List<UUID> lockIds = stripedTarget ? List.of(fromCardId) : List.of(fromCardId, toCardId);
+
+        // Rows stay locked until commit; the query locks them in id order to avoid deadlocks
+        Map<UUID, Card> locked = cardRepository.findAllByIdForUpdate(lockIds)
+                .stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+
+        Card fromCard = Optional.ofNullable(locked.get(fromCardId))
+                .orElseThrow(() -> new NotFoundException("Source card not found"));
+        drainStripedCredits(fromCard);
+
+        if (stripedTarget) {
+            validateSource(currentUserId, fromCard, amount);
+            Card toCard = credit(currentUserId, fromCardId, toCardId, amount);
+            fromCard.setBalance(fromCard.getBalance().subtract(amount));
+            cardRepository.save(fromCard);
+            return new TransferParties(fromCard, toCard);
+        }
+
+        Card toCard = Optional.ofNullable(locked.get(toCardId))
+                .orElseThrow(() -> new NotFoundException("Destination card not found"));
+
+        applyTransfer(currentUserId, fromCard, toCard, amount);
+        cardRepository.save(fromCard);
+        cardRepository.save(toCard);
+
+        return new TransferParties(fromCard, toCard);
+    }
+
+    /**
+     * Validates ownership, status and funds on already locked cards and moves the amount in memory.
+     */
+    private void applyTransfer
+            (UUID currentUserId, Card fromCard, Card toCard, BigDecimal amount) {
+        validateSource(currentUserId, fromCard, amount);
+
+        if (!toCard.getUser().getId().equals(currentUserId)) {
+            throw new ForbiddenRequestException("You do not own both cards.");
+        }
+
+        if (toCard.getCardStatus() != CardStatus.ACTIVE) {
+            throw new IllegalStateException("Destination card is not active.");
+        }
+
+        fromCard.setBalance(fromCard.getBalance().subtract(amount));
+        toCard.setBalance(toCard.getBalance().add(amount));
+    }
+
+    private void validateSource
+            (UUID currentUserId, Card fromCard, BigDecimal amount) {
+        if (!fromCard.getUser().getId().equals(currentUserId)) {
+            throw new ForbiddenRequestException("You do not own both cards.");
+        }
+
+        if (fromCard.getCardStatus() != CardStatus.ACTIVE) {
+            throw new IllegalStateException("Source card is not active.");
+        }
+
+        if (fromCard.getBalance().compareTo(amount) < 0) {
+            throw new IllegalStateException("Insufficient funds in source card.");
+        }
+    }
+
+    /**
+     * Moves pending slot credits of a locked striped card into its in-memory balance before it is debited.
+     */
+    private void drainStripedCredits(Card card) {
+        if (stripedBalanceService.isStriped(card.getId())) {
+            card.setBalance(card.getBalance().add(stripedBalanceService.drain(card.getId())));
+        }
+    }
+
+    private TransferParties transferWithConditionalUpdates
+            (UUID currentUserId, UUID fromCardId, UUID toCardId, BigDecimal amount) {
+        // Apply the two updates in the order PostgreSQL sorts uuids, the order findAllByIdForUpdate locks in,
+        // so opposite transfers can't deadlock on the row locks
+        if (compareAsPostgresUuids(fromCardId, toCardId) < 0) {
+            Card fromCard = debit(currentUserId, fromCardId, amount);
+            return new TransferParties(fromCard, credit(currentUserId, fromCardId, toCardId, amount));
+        }
+        Card toCard = credit(currentUserId, fromCardId, toCardId, amount);
+        return new TransferParties(debit(currentUserId, fromCardId, amount), toCard);
+    }
+
+    /**
+     * PostgreSQL compares uuids as unsigned bytes, while {@link UUID#compareTo} compares signed longs, so the
+     * two disagree whenever exactly one of the ids has its top bit set.
+     */
+    static int compareAsPostgresUuids(UUID a, UUID b) {
+        int mostSignificant = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return mostSignificant != 0
+                ? mostSignificant
+                : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the debited card with only the fields the response and ledger use, read back from the update.
+     */
+    private Card debit
+            (UUID currentUserId, UUID cardId, BigDecimal amount) {
+        if (stripedBalanceService.isStriped(cardId)) {
+            stripedBalanceService.fold(cardId);
+        }
+        Optional<CardRepository.BalanceAfterUpdate> debited = cardRepository.debitIfActive(cardId, currentUserId, amount);
+        if (debited.isPresent()) {
+            return updatedCard(cardId, debited.get().getBalance(), debited.get().getCardNumberLast4());
+        }
+        // The update matched nothing, look the card up only to report why
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new NotFoundException("Source card not found"));
+        if (!card.getUser().getId().equals(currentUserId)) {
+            throw new ForbiddenRequestException("You do not own both cards.");
+        }
+        if (card.getCardStatus() != CardStatus.ACTIVE) {
+            throw new IllegalStateException("Source card is not active.");
+        }
+        throw new IllegalStateException("Insufficient funds in source card.");
+    }
+
+    /**
+     * Like {@link #debit}; the balance of a striped card is left out, as its credit sits in a slot.
+     */
+    private Card credit
+            (UUID currentUserId, UUID fromCardId, UUID cardId, BigDecimal amount) {
+        Optional<Card> credited = stripedBalanceService.isStriped(cardId)
+                ? stripedBalanceService.credit(cardId, currentUserId, fromCardId, amount)
+                        .map(last4 -> updatedCard(cardId, null, last4))
+                : Optional.empty();
+        // Also reached when the slot credit found the card unstriped by another instance
+        if (credited.isEmpty() && !stripedBalanceService.isStriped(cardId)) {
+            credited = cardRepository.creditIfActive(cardId, currentUserId, amount)
+                    .map(card -> updatedCard(cardId, card.getBalance(), card.getCardNumberLast4()));
+        }
+        if (credited.isPresent()) {
+            return credited.get();
+        }
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new NotFoundException("Destination card not found"));
+        if (!card.getUser().getId().equals(currentUserId)) {
+            throw new ForbiddenRequestException("You do not own both cards.");
+        }
+        throw new IllegalStateException("Destination card is not active.");
+    }
+
+    private Optional<TransferResponseDTO> findReplay
+            (UUID currentUserId, String idempotencyKey, UUID fromCardId, UUID toCardId, BigDecimal amount) {
+        Optional<IdempotentTransfer> known = idempotencyCache.find(currentUserId, idempotencyKey);
+        if (known.isEmpty()) {
+            known = transferRepository.findByRequestedByAndIdempotencyKey(currentUserId, idempotencyKey)
+                    .map(this::toIdempotentTransfer);
+            known.ifPresent(t -> idempotencyCache.put(currentUserId, idempotencyKey, t));
+        }
+        if (known.isPresent() && !known.get().matches(fromCardId, toCardId, amount)) {
+            throw new ConflictException("Idempotency-Key was already used for a different transfer");
+        }
+        return known.map(IdempotentTransfer::response);
+    }
+
+    private IdempotentTransfer toIdempotentTransfer(Transfer transfer) {
+        Map<UUID, Card> cards = cardRepository.findAllById(List.of(transfer.getSourceCardId(), transfer.getTargetCardId()))
+                .stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        TransferResponseDTO response = new TransferResponseDTO(
+                maskedNumberOf(cards.get(transfer.getSourceCardId())),
+                maskedNumberOf(cards.get(transfer.getTargetCardId())),
+                transfer.getAmount(),
+                transfer.getCreatedAt());
+        return new IdempotentTransfer(transfer.getSourceCardId(), transfer.getTargetCardId(), transfer.getAmount(), response);
+    }
+
+    private static Card updatedCard(UUID id, BigDecimal balance, String cardNumberLast4) {
+        return Card.builder().id(id).balance(balance).cardNumberLast4(cardNumberLast4).build();
+    }
+
+    private String maskedNumberOf(Card card) {
+        return card != null ? mask(card.getCardNumberLast4()) : null;
+    }
+
+    private List<LedgerEntry> ledgerEntriesFor
+            (Transfer transfer, BigDecimal sourceBalanceAfter, BigDecimal targetBalanceAfter) {
+        return List.of(
+                LedgerEntry.builder()
+                        .cardId(transfer.getSourceCardId())
+                        .transferId(transfer.getId())
+                        .entryType(LedgerEntryType.DEBIT)
+                        .amount(transfer.getAmount())
+                        .balanceAfter(sourceBalanceAfter)
+                        .build(),
+                LedgerEntry.builder()
+                        .cardId(transfer.getTargetCardId())
+                        .transferId(transfer.getId())
+                        .entryType(LedgerEntryType.CREDIT)
+                        .amount(transfer.getAmount())
+                        .balanceAfter(targetBalanceAfter)
+                        .build());
+    }
+
+    private Optional<UUID> parseCardId(String value) {
+        try {
+            return Optional.of(UUID.fromString(value));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Optional.empty();
+        }
+    }
+
     private String mask
-            (String rawNumber) {
-        String last4 = rawNumber.length() >= 4
-                ? rawNumber.substring(rawNumber.length() - 4)
-                : rawNumber;
+            (String last4) {
         return "**** **** **** " + last4;
     }
 
@@ -322,11 +738,54 @@ public class CardServiceImpl implements CardService {
         return ((UserDetailsImpl) authentication.getPrincipal()).getId();
     }
 
+    private TransferHistoryItemDTO toHistoryItem(UUID cardId, Transfer transfer) {
+        boolean outgoing = transfer.getSourceCardId().equals(cardId);
+        return new TransferHistoryItemDTO(
+                transfer.getId(),
+                outgoing ? TransferDirection.OUTGOING : TransferDirection.INCOMING,
+                outgoing ? transfer.getTargetCardId() : transfer.getSourceCardId(),
+                transfer.getAmount(),
+                transfer.getCreatedAt());
+    }
+
+    /**
+     * Loads one keyset page, fetching a single extra row to learn whether a next page exists.
+     */
+    private CardPageDTO cardsAfter(UUID userId, String cardStatus, String after, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        PageCursor cursor = PageCursor.decode(after);
+        CardStatus status = cardStatus != null ? CardStatus.fromString(cardStatus) : null;
+        Limit limit = Limit.of(size + 1);
+
+        List<CardSummaryDTO> cards;
+        if (userId != null) {
+            cards = (status != null)
+                    ? cardRepository.findSummariesByUserIdAndCardStatusAfter(userId, status, cursor.createdAt(), cursor.id(), limit)
+                    : cardRepository.findSummariesByUserIdAfter(userId, cursor.createdAt(), cursor.id(), limit);
+        } else {
+            cards = (status != null)
+                    ? cardRepository.findSummariesByCardStatusAfter(status, cursor.createdAt(), cursor.id(), limit)
+                    : cardRepository.findSummariesAfter(cursor.createdAt(), cursor.id(), limit);
+        }
+
+        boolean hasNext = cards.size() > size;
+        List<CardSummaryDTO> page = hasNext ? cards.subList(0, size) : cards;
+        CardSummaryDTO last = hasNext ? page.get(page.size() - 1) : null;
+        return CardPageDTO.builder()
+                .content(page.stream().map(this::toDto).toList())
+                .page(0)
+                .size(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .nextCursor(last != null ? new PageCursor(last.createdAt(), last.id()).encode() : null)
+                .build();
+    }
+
     private CardDTO toDto
             (Card card) {
-        String rawNumber = encryptionUtil.decrypt(card.getCardNumber());
-
-        String masked = mask(rawNumber);
+        String masked = mask(card.getCardNumberLast4());
 
         return new CardDTO(
                 card.getId(),
@@ -338,8 +797,21 @@ public class CardServiceImpl implements CardService {
         );
     }
 
+    private CardDTO toDto(CardSummaryDTO card) {
+        return new CardDTO(
+                card.id(),
+                card.ownerName(),
+                mask(card.cardNumberLast4()),
+                card.expirationDate(),
+                card.cardStatus(),
+                card.balance()
+        );
+    }
+
     private CardDTO toDtoWithoutMasking(Card card) {
-        String raw = encryptionUtil.decrypt(card.getCardNumber());
+        String raw = card.getCardNumberCipher() != null
+                ? encryptionUtil.decryptBinary(card.getCardNumberCipher())
+                : encryptionUtil.decrypt(card.getCardNumber());
         return new CardDTO(
                 card.getId(),
                 card.getUser().getFullName(),
@@ -350,71 +822,10 @@ public class CardServiceImpl implements CardService {
         );
     }
 
-    // Number generation algorithm
-    private int calculateLuhnChecksum(int[] digits) {
-        int sum = 0;
-        boolean doubleDigit = true;
-
-        for (int i = digits.length - 1; i >= 0; i--) {
-            int d = digits[i];
-            if (doubleDigit) {
-                d *= 2;
-                if (d > 9) d -= 9;
-            }
-            sum += d;
-            doubleDigit = !doubleDigit;
-        }
-
-        int mod = sum % 10;
-        return (mod == 0) ? 0 : 10 - mod;
-    }
-
-
-    private String generateLuhnCardNumber() {
-        Random random = new Random();
-        int[] digits = new int[15];
-
-        // Generate first 15 digits randomly
-        for (int i = 0; i < 15; i++) {
-            digits[i] = random.nextInt(10);
-        }
-
-        // Calculate checksum (16th digit)
-        int checksum = calculateLuhnChecksum(digits);
-
-        // Build final card number
-        StringBuilder builder = new StringBuilder();
-        for (int digit : digits) {
-            builder.append(digit);
-        }
-        builder.append(checksum); // 16th digit
-
-        return builder.toString();
-    }
-
-    private GeneratedCardPayload generateCardPayload() {
-        int maxAttempts = 5;
-        for (int i = 0; i < maxAttempts; i++) {
-            String raw = generateLuhnCardNumber();
-            String fingerprint = fingerprint(raw);
-            if (!cardRepository.existsByCardNumberFingerprint(fingerprint)) {
-                return new GeneratedCardPayload(encryptionUtil.encrypt(raw), fingerprint);
-            }
-        }
-        throw new InternalServerException("Failed to generate unique card number after retries");
-    }
-
-    private String fingerprint(String value) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(value.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new InternalServerException("Failed to fingerprint card number", e);
-        }
+    private record TransferParties(Card fromCard, Card toCard) {
     }
 
-    private record GeneratedCardPayload(String encryptedNumber, String fingerprint) {
+    private record PendingTransfer(Transfer transfer, BigDecimal sourceBalanceAfter, BigDecimal targetBalanceAfter) {
     }
 
 
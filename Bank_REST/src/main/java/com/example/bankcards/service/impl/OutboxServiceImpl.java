@@ -0,0 +1,113 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.dto.TransferEventDTO;
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.event.EventPublisher;
+import com.example.bankcards.exception.InternalServerException;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    static final String TRANSFER_AGGREGATE = "TRANSFER";
+    static final String TRANSFER_COMPLETED = "TransferCompleted";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.retention:7d}")
+    private Duration retention = Duration.ofDays(7);
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Value("${outbox.retry-backoff:1s}")
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    @Value("${outbox.max-retry-backoff:10m}")
+    private Duration maxRetryBackoff = Duration.ofMinutes(10);
+
+    @Override
+    @Transactional
+    public void recordTransfers(List<Transfer> transfers) {
+        outboxEventRepository.saveAll(transfers.stream()
+                .map(transfer -> OutboxEvent.builder()
+                        .aggregateType(TRANSFER_AGGREGATE)
+                        .aggregateId(transfer.getId())
+                        .eventType(TRANSFER_COMPLETED)
+                        .payload(toJson(new TransferEventDTO(
+                                transfer.getId(),
+                                transfer.getSourceCardId(),
+                                transfer.getTargetCardId(),
+                                transfer.getAmount(),
+                                transfer.getCreatedAt())))
+                        .build())
+                .toList());
+    }
+
+    @Override
+    @Transactional
+    public int publishPending(int batchSize) {
+        List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+        int published = 0;
+        for (OutboxEvent event : events) {
+            try {
+                eventPublisher.publish(event);
+                event.setPublishedAt(LocalDateTime.now());
+                published++;
+            } catch (RuntimeException e) {
+                recordFailure(event, e);
+            }
+        }
+        outboxEventRepository.saveAll(events);
+        return published;
+    }
+
+    @Override
+    @Transactional
+    public int purgePublished() {
+        return outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            event.setDeadLetteredAt(LocalDateTime.now());
+            log.error("Outbox event [{}] dead-lettered after {} attempts: {}", event.getId(), attempts, e.getMessage());
+            return;
+        }
+        // Exponential backoff, so a failing event neither spins the poller nor holds up the events behind it
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        if (backoff.compareTo(maxRetryBackoff) > 0) {
+            backoff = maxRetryBackoff;
+        }
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        log.warn("Failed to publish outbox event [{}] (attempt {}), retrying in {}: {}",
+                event.getId(), attempts, backoff, e.getMessage());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException("Failed to serialize outbox event", e);
+        }
+    }
+}
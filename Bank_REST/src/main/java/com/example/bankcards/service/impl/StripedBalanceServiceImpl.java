@@ -0,0 +1,141 @@
+package com.example.bankcards.service.impl;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardBalanceSlot;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardBalanceSlotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.StripedBalanceService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+public class StripedBalanceServiceImpl implements StripedBalanceService {
+
+    private final CardRepository cardRepository;
+    private final CardBalanceSlotRepository slotRepository;
+
+    @Value("${card.striping.max-slots:64}")
+    private int maxSlots = 64;
+
+    // Striped cards are a handful of merchant/treasury cards, so the whole set is kept in memory
+    private final Map<UUID, Integer> slotsByCard = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Override
+    public boolean isStriped(UUID cardId) {
+        return slotsByCard.containsKey(cardId);
+    }
+
+    @Override
+    @Transactional
+    public Optional<String> credit(UUID cardId, UUID ownerId, UUID sourceCardId, BigDecimal amount) {
+        Integer slots = slotsByCard.get(cardId);
+        if (slots == null) {
+            return Optional.empty();
+        }
+        Optional<String> credited = creditSlot(cardId, slots, ownerId, sourceCardId, amount);
+        if (credited.isPresent()) {
+            return credited;
+        }
+        // The slots may have been reconfigured on another instance since the last refresh
+        int current = cardRepository.findBalanceSlotsById(cardId).orElse(0);
+        if (current > 0) {
+            slotsByCard.put(cardId, current);
+        } else {
+            slotsByCard.remove(cardId);
+        }
+        return current > 0 && current != slots
+                ? creditSlot(cardId, current, ownerId, sourceCardId, amount)
+                : Optional.empty();
+    }
+
+    @Override
+    @Transactional
+    public BigDecimal drain(UUID cardId) {
+        return slotRepository.drain(cardId);
+    }
+
+    @Override
+    @Transactional
+    public void fold(UUID cardId) {
+        // Card row first, then its slots: the same order the transfer paths use
+        Card card = lockCard(cardId);
+        BigDecimal drained = slotRepository.drain(cardId);
+        if (drained.signum() != 0) {
+            card.setBalance(card.getBalance().add(drained));
+            cardRepository.save(card);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UUID> cardsWithPendingCredits() {
+        return slotRepository.findCardIdsWithPendingCredits();
+    }
+
+    @Override
+    @Transactional
+    public void configureSlots(UUID cardId, int slots) {
+        if (slots < 0 || slots > maxSlots) {
+            throw new IllegalArgumentException("Slot count must be between 0 and " + maxSlots);
+        }
+        Card card = lockCard(cardId);
+        slotRepository.lockAllByCardId(cardId);
+        card.setBalance(card.getBalance().add(slotRepository.drain(cardId)));
+        slotRepository.deleteByCardId(cardId);
+        slotRepository.saveAll(IntStream.range(0, slots)
+                .mapToObj(slot -> CardBalanceSlot.builder()
+                        .cardId(cardId)
+                        .slot(slot)
+                        .balance(BigDecimal.ZERO)
+                        .build())
+                .toList());
+        card.setBalanceSlots(slots);
+        cardRepository.save(card);
+
+        if (slots > 0) {
+            slotsByCard.put(cardId, slots);
+        } else {
+            slotsByCard.remove(cardId);
+        }
+    }
+
+    // Not read-only: that would send it to a replica, which may not have seen a slot change made moments ago
+    @Override
+    @Transactional
+    public void refresh() {
+        Map<UUID, Integer> current = new ConcurrentHashMap<>();
+        cardRepository.findByBalanceSlotsGreaterThan(0)
+                .forEach(card -> current.put(card.getId(), card.getBalanceSlots()));
+        slotsByCard.keySet().retainAll(current.keySet());
+        slotsByCard.putAll(current);
+    }
+
+    private Optional<String> creditSlot(UUID cardId, int slots, UUID ownerId, UUID sourceCardId, BigDecimal amount) {
+        int slot = Math.floorMod(sourceCardId.hashCode(), slots);
+        return slotRepository.creditIfActive(cardId, slot, ownerId, amount);
+    }
+
+    private Card lockCard(UUID cardId) {
+        return cardRepository.findAllByIdForUpdate(List.of(cardId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Card not found with ID: " + cardId));
+    }
+}
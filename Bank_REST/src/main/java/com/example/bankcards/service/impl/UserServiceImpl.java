@@ -10,6 +10,7 @@ import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.UserService;
+import com.example.bankcards.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -48,6 +50,31 @@ public class UserServiceImpl implements UserService {
                 .build();
     }
 
+    @Override
+    public UserPageDTO getAllUsersAfter(String after, int size, String fullName) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        PageCursor cursor = PageCursor.decode(after);
+        int limit = size + 1;
+
+        List<User> users = (StringUtils.hasText(fullName))
+                ? userRepository.findPageByFullNameAfter(fullName, cursor.createdAt(), cursor.id(), limit)
+                : userRepository.findPageAfter(cursor.createdAt(), cursor.id(), limit);
+
+        boolean hasNext = users.size() > size;
+        List<User> page = hasNext ? users.subList(0, size) : users;
+        User last = hasNext ? page.get(page.size() - 1) : null;
+        return UserPageDTO.builder()
+                .content(page.stream().map(this::toDto).toList())
+                .page(0)
+                .size(size)
+                .totalElements(-1)
+                .totalPages(-1)
+                .nextCursor(last != null ? new PageCursor(last.getCreatedAt(), last.getId()).encode() : null)
+                .build();
+    }
+
     @Override
     public UserDTO getUserById(String userId) {
         UUID id = UUID.fromString(userId);
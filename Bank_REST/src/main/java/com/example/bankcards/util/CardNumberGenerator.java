@@ -0,0 +1,51 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random 16-digit card numbers with a valid Luhn check digit.
+ */
+public final class CardNumberGenerator {
+
+    private static final int LENGTH = 16;
+
+    private CardNumberGenerator() {
+    }
+
+    public static String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] digits = new int[LENGTH - 1];
+
+        // Generate first 15 digits randomly
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = random.nextInt(10);
+        }
+
+        // Build final card number, the 16th digit is the checksum
+        StringBuilder builder = new StringBuilder(LENGTH);
+        for (int digit : digits) {
+            builder.append(digit);
+        }
+        builder.append(luhnChecksum(digits));
+
+        return builder.toString();
+    }
+
+    static int luhnChecksum(int[] digits) {
+        int sum = 0;
+        boolean doubleDigit = true;
+
+        for (int i = digits.length - 1; i >= 0; i--) {
+            int d = digits[i];
+            if (doubleDigit) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            doubleDigit = !doubleDigit;
+        }
+
+        int mod = sum % 10;
+        return (mod == 0) ? 0 : 10 - mod;
+    }
+}
@@ -1,8 +1,32 @@
 package com.example.bankcards.util;
 
+import java.util.List;
+
 public interface EncryptionUtil {
     String encrypt(String plain);
 
     String decrypt(String cipher);
 
+    /**
+     * Decrypts several values with one cipher instance, results are in input order.
+     */
+    List<String> decryptAll(List<String> ciphers);
+
+    /**
+     * Encrypts into the compact binary format: a one-byte key id header, the IV and the ciphertext with its tag.
+     */
+    byte[] encryptBinary(String plain);
+
+    String decryptBinary(byte[] cipher);
+
+    /**
+     * Id of the key new binary values are encrypted with.
+     */
+    int activeKeyId();
+
+    /**
+     * Id of the key a binary value was encrypted with, read from its header byte.
+     */
+    int keyIdOf(byte[] cipher);
+
 }
@@ -1,7 +1,6 @@
 package com.example.bankcards.util;
 
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -9,56 +8,223 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Service
-@RequiredArgsConstructor
 public class EncryptionUtilImpl implements EncryptionUtil {
 
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    /**
+     * Id of {@code encryption.key}. Text values ({@code base64(iv):base64(ciphertext)}) carry no header
+     * and are always encrypted with it.
+     */
+    static final int PRIMARY_KEY_ID = 1;
+
     @Value("${encryption.key}")
     private String secretKey;
 
+    /**
+     * Additional keys as {@code id:key} pairs separated by commas, ids 2..255.
+     */
+    @Value("${encryption.keys:}")
+    private String additionalKeys = "";
+
+    /**
+     * Key used for new binary values. Its id is written as the first byte of every binary value,
+     * so values encrypted with any key still in the ring stay readable.
+     */
+    @Value("${encryption.active-key-id:1}")
+    private int activeKeyId = PRIMARY_KEY_ID;
+
     private SecretKeySpec keySpec;
+    private final Map<Integer, SecretKeySpec> keyRing = new HashMap<>();
     private final SecureRandom secureRandom = new SecureRandom();
 
+    /*
+     * Cipher.getInstance does a provider lookup on every call, so instances are pooled and reused.
+     * A borrowed cipher is always re-initialised with the call's own IV before use, which keeps
+     * GCM's one-IV-per-encryption rule intact. The pool grows to the peak number of concurrent callers.
+     */
+    private final Queue<Cipher> cipherPool = new ConcurrentLinkedQueue<>();
+
+    public EncryptionUtilImpl() {
+    }
+
+    /**
+     * Standalone instance for code that runs outside the Spring context, such as Liquibase custom changes.
+     */
+    public EncryptionUtilImpl(String secretKey) {
+        this.secretKey = secretKey;
+        init();
+    }
+
+    public EncryptionUtilImpl(String secretKey, String additionalKeys) {
+        this.secretKey = secretKey;
+        this.additionalKeys = additionalKeys;
+        init();
+    }
+
     @PostConstruct
     public void init() {
         keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "AES");
+        keyRing.clear();
+        keyRing.put(PRIMARY_KEY_ID, keySpec);
+        if (additionalKeys != null && !additionalKeys.isBlank()) {
+            for (String entry : additionalKeys.split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator < 0) {
+                    throw new IllegalStateException("encryption.keys entries must be id:key");
+                }
+                int id = Integer.parseInt(entry.substring(0, separator).trim());
+                if (id <= PRIMARY_KEY_ID || id > 255) {
+                    throw new IllegalStateException("encryption.keys ids must be between 2 and 255, got " + id);
+                }
+                byte[] key = entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8);
+                keyRing.put(id, new SecretKeySpec(key, "AES"));
+            }
+        }
+        if (!keyRing.containsKey(activeKeyId)) {
+            throw new IllegalStateException("encryption.active-key-id " + activeKeyId + " is not in the key ring");
+        }
+    }
+
+    @Override
+    public int activeKeyId() {
+        return activeKeyId;
+    }
+
+    @Override
+    public int keyIdOf(byte[] cipherBytes) {
+        return cipherBytes[0] & 0xFF;
     }
 
     @Override
     public String encrypt(String plain) {
+        Cipher cipher = null;
         try {
-            byte[] iv = new byte[12];
+            byte[] iv = new byte[IV_LENGTH];
             secureRandom.nextBytes(iv);
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+            cipher = borrowCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
             byte[] encrypted = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
             return Base64.getEncoder().encodeToString(iv) + ":" + Base64.getEncoder().encodeToString(encrypted);
         } catch (Exception ex) {
             throw new RuntimeException("Encryption failed", ex);
+        } finally {
+            releaseCipher(cipher);
         }
     }
 
     @Override
     public String decrypt(String cipherText) {
+        Cipher cipher = null;
+        try {
+            cipher = borrowCipher();
+            return decrypt(cipher, cipherText);
+        } catch (Exception ex) {
+            throw new RuntimeException("Decryption failed", ex);
+        } finally {
+            releaseCipher(cipher);
+        }
+    }
+
+    @Override
+    public List<String> decryptAll(List<String> cipherTexts) {
+        List<String> result = new ArrayList<>(cipherTexts.size());
+        Cipher cipher = null;
         try {
-            String[] parts = cipherText.split(":", 2);
-            if (parts.length != 2) {
-                throw new IllegalArgumentException("Invalid cipher text format");
+            cipher = borrowCipher();
+            for (String cipherText : cipherTexts) {
+                result.add(decrypt(cipher, cipherText));
             }
+            return result;
+        } catch (Exception ex) {
+            throw new RuntimeException("Decryption failed", ex);
+        } finally {
+            releaseCipher(cipher);
+        }
+    }
 
-            byte[] iv = Base64.getDecoder().decode(parts[0]);
-            byte[] payload = Base64.getDecoder().decode(parts[1]);
+    @Override
+    public byte[] encryptBinary(String plain) {
+        Cipher cipher = null;
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+
+            cipher = borrowCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, keyRing.get(activeKeyId), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] plainBytes = plain.getBytes(StandardCharsets.UTF_8);
+            byte[] out = new byte[1 + IV_LENGTH + cipher.getOutputSize(plainBytes.length)];
+            out[0] = (byte) activeKeyId;
+            System.arraycopy(iv, 0, out, 1, IV_LENGTH);
+            cipher.doFinal(plainBytes, 0, plainBytes.length, out, 1 + IV_LENGTH);
+            return out;
+        } catch (Exception ex) {
+            throw new RuntimeException("Encryption failed", ex);
+        } finally {
+            releaseCipher(cipher);
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
-            byte[] decrypted = cipher.doFinal(payload);
+    @Override
+    public String decryptBinary(byte[] cipherBytes) {
+        Cipher cipher = null;
+        try {
+            SecretKeySpec key = cipherBytes.length > 1 + IV_LENGTH ? keyRing.get(keyIdOf(cipherBytes)) : null;
+            if (key == null) {
+                throw new IllegalArgumentException("Unsupported cipher format or unknown key id");
+            }
+            cipher = borrowCipher();
+            cipher.init(Cipher.DECRYPT_MODE, key,
+                    new GCMParameterSpec(TAG_LENGTH_BITS, cipherBytes, 1, IV_LENGTH));
+            byte[] decrypted = cipher.doFinal(cipherBytes, 1 + IV_LENGTH, cipherBytes.length - 1 - IV_LENGTH);
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception ex) {
             throw new RuntimeException("Decryption failed", ex);
+        } finally {
+            releaseCipher(cipher);
+        }
+    }
+
+    private String decrypt(Cipher cipher, String cipherText) throws GeneralSecurityException {
+        int separator = cipherText.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cipher text format");
+        }
+
+        byte[] iv = Base64.getDecoder().decode(cipherText.substring(0, separator));
+        byte[] payload = Base64.getDecoder().decode(cipherText.substring(separator + 1));
+
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        byte[] decrypted = cipher.doFinal(payload);
+        return new String(decrypted, StandardCharsets.UTF_8);
+    }
+
+    private Cipher borrowCipher() throws GeneralSecurityException {
+        Cipher cipher = cipherPool.poll();
+        return cipher != null ? cipher : Cipher.getInstance(TRANSFORMATION);
+    }
+
+    /**
+     * Returns a cipher to the pool. A cipher whose last operation failed is still safe to reuse,
+     * since every call starts with {@code init}.
+     */
+    private void releaseCipher(Cipher cipher) {
+        if (cipher != null) {
+            cipherPool.offer(cipher);
         }
     }
 }
@@ -0,0 +1,9 @@
+package com.example.bankcards.util;
+
+public interface FingerprintUtil {
+
+    /**
+     * Keyed, deterministic fingerprint of a card number as lowercase hex, used for uniqueness checks.
+     */
+    String fingerprint(String cardNumber);
+}
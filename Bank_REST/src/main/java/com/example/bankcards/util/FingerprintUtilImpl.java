@@ -0,0 +1,67 @@
+package com.example.bankcards.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HMAC-SHA256 fingerprints. Unlike a plain hash, the key keeps the small card number space from being
+ * brute-forced back out of the fingerprint column.
+ */
+@Service
+public class FingerprintUtilImpl implements FingerprintUtil {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${card.fingerprint.key}")
+    private String secretKey;
+
+    private SecretKeySpec keySpec;
+
+    // Same reuse scheme as the cipher pool in EncryptionUtilImpl; doFinal resets a Mac for its next use
+    private final Queue<Mac> macPool = new ConcurrentLinkedQueue<>();
+
+    public FingerprintUtilImpl() {
+    }
+
+    /**
+     * Standalone instance for code that runs outside the Spring context, such as Liquibase custom changes.
+     */
+    public FingerprintUtilImpl(String secretKey) {
+        this.secretKey = secretKey;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    @Override
+    public String fingerprint(String cardNumber) {
+        Mac mac = null;
+        try {
+            mac = macPool.poll();
+            if (mac == null) {
+                mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+            }
+            return HexFormat.of().formatHex(mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            mac = null;
+            throw new RuntimeException("Fingerprinting failed", ex);
+        } finally {
+            if (mac != null) {
+                macPool.offer(mac);
+            }
+        }
+    }
+}
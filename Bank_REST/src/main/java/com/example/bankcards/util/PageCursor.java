@@ -0,0 +1,56 @@
+package com.example.bankcards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing ordered by {@code (created_at, id)}. Clients only ever see the encoded form,
+ * which they pass back as the {@code after} parameter to fetch the next page.
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * Sorts before every real row, used when a client asks for the first page in cursor mode.
+     */
+    public static final PageCursor START = new PageCursor(LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0, 0));
+
+    /**
+     * Sorts after every real row, the first-page cursor of a newest-first listing.
+     */
+    public static final PageCursor END = new PageCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(0, 0));
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}; a blank token means the first page.
+     */
+    public static PageCursor decode(String token) {
+        return decode(token, START);
+    }
+
+    /**
+     * Same as {@link #decode(String)}, with {@code first} standing for a blank token.
+     */
+    public static PageCursor decode(String token, PageCursor first) {
+        if (token == null || token.isBlank()) {
+            return first;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new PageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+}
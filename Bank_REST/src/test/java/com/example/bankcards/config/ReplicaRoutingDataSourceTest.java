@@ -0,0 +1,136 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.service.ReadYourWritesWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    DataSource primary;
+
+    @Mock
+    DataSource replica1;
+
+    @Mock
+    DataSource replica2;
+
+    @Mock
+    ReadYourWritesWindow readYourWrites;
+
+    @Mock
+    Connection primaryConnection;
+
+    @Mock
+    Connection replica1Connection;
+
+    @Mock
+    Connection replica2Connection;
+
+    ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), readYourWrites,
+                Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should spread read connections over the replicas in turn")
+    void testRoundRobin() throws SQLException {
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+
+        assertSame(replica1Connection, routing.getConnection());
+        assertSame(replica2Connection, routing.getConnection());
+        assertSame(replica1Connection, routing.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    @DisplayName("Should send connections with explicit credentials to the primary")
+    void testExplicitCredentialsUsePrimary() throws SQLException {
+        when(primary.getConnection("other", "secret")).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routing.getConnection("other", "secret"));
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    @DisplayName("Should skip a replica that refuses a connection until it passes a health check")
+    void testSkipsFailedReplica() throws Exception {
+        when(replica1.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+
+        assertSame(replica2Connection, routing.getConnection());
+        assertSame(replica2Connection, routing.getConnection());
+        verify(replica1, times(1)).getConnection();
+
+        connectionReportingLag(replica1Connection, 0);
+        connectionReportingLag(replica2Connection, 0);
+        reset(replica1);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        routing.checkHealth();
+
+        assertSame(replica1Connection, routing.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should take a lagging replica out of rotation")
+    void testLaggingReplica() throws Exception {
+        connectionReportingLag(replica1Connection, 60_000);
+        connectionReportingLag(replica2Connection, 10);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+
+        routing.checkHealth();
+
+        assertSame(replica2Connection, routing.getConnection());
+        assertSame(replica2Connection, routing.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when every replica is down")
+    void testFallbackToPrimary() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("down"));
+        when(replica2.getConnection()).thenThrow(new SQLException("down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary inside the read-your-writes window")
+    void testReadYourWrites() throws SQLException {
+        when(readYourWrites.currentUserNeedsPrimary()).thenReturn(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routing.getConnection());
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    private void connectionReportingLag(Connection connection, long lagMillis) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(lagMillis);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RequestConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("Should reject a request with 503 while every permit is taken")
+    void testRejectsWhenSaturated() throws Exception {
+        RequestConcurrencyLimiter limiter = new RequestConcurrencyLimiter(new ObjectMapper(), 1, 1, Duration.ofMillis(50));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blockingChain = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> first = executor.submit(() -> {
+                limiter.doFilter(new MockHttpServletRequest("GET", "/api/v1/cards/all"),
+                        new MockHttpServletResponse(), blockingChain);
+                return null;
+            });
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            FilterChain chain = mock(FilterChain.class);
+            limiter.doFilter(new MockHttpServletRequest("GET", "/api/v1/cards/all"), rejected, chain);
+
+            assertEquals(503, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+            JsonNode body = new ObjectMapper().readTree(rejected.getContentAsString());
+            assertEquals(503, body.get("status").asInt());
+            assertEquals("/api/v1/cards/all", body.get("path").asText());
+            verify(chain, never()).doFilter(any(), any());
+
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        }
+
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+        limiter.doFilter(new MockHttpServletRequest("GET", "/api/v1/cards/all"), admitted, chain);
+
+        assertEquals(200, admitted.getStatus());
+        verify(chain).doFilter(any(), any());
+    }
+}
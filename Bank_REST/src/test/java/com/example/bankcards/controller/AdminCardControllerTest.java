@@ -1,8 +1,11 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.config.SecurityConfig;
+import com.example.bankcards.dto.BulkCreateCardsResponseDTO;
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.exception.BulkIssuanceException;
+import com.example.bankcards.exception.GlobalExceptionHandler;
 import com.example.bankcards.service.CardService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -28,7 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(AdminCardController.class)
 @AutoConfigureMockMvc(addFilters = false)
-@ContextConfiguration(classes = {AdminCardController.class})
+@ContextConfiguration(classes = {AdminCardController.class, GlobalExceptionHandler.class})
 class AdminCardControllerTest {
 
     @Autowired
@@ -37,6 +40,9 @@ class AdminCardControllerTest {
     @MockitoBean
     private CardService cardService;
 
+    @MockitoBean
+    private com.example.bankcards.service.CardIssuanceService cardIssuanceService;
+
     @MockitoBean
     private com.example.bankcards.security.JwtUtil jwtUtil;
 
@@ -47,7 +53,7 @@ class AdminCardControllerTest {
     @DisplayName("GET /api/v1/admin/cards/all as ADMIN returns cards page")
     void getAllCards_AsAdmin() throws Exception {
         CardDTO c = new CardDTO(UUID.randomUUID(), "Owner", "****1111", LocalDate.now(), null, BigDecimal.TEN);
-        CardPageDTO page = new CardPageDTO(List.of(c), 0, 1, 1, 1);
+        CardPageDTO page = new CardPageDTO(List.of(c), 0, 1, 1, 1, null);
         when(cardService.listAllCards(anyString(), anyInt(), anyInt())).thenReturn(page);
         mockMvc.perform(get("/api/v1/admin/cards/all")
                         .with(user("admin").roles("ADMIN"))
@@ -56,12 +62,25 @@ class AdminCardControllerTest {
                 .andExpect(jsonPath("$.content[0].maskedNumber").value("****1111"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/admin/cards/all with after uses cursor pagination")
+    void getAllCards_WithCursor() throws Exception {
+        CardDTO c = new CardDTO(UUID.randomUUID(), "Owner", "****1111", LocalDate.now(), null, BigDecimal.TEN);
+        CardPageDTO page = new CardPageDTO(List.of(c), 0, 1, -1, -1, "next");
+        when(cardService.listAllCardsAfter(isNull(), eq(""), eq(1))).thenReturn(page);
+        mockMvc.perform(get("/api/v1/admin/cards/all")
+                        .with(user("admin").roles("ADMIN"))
+                        .param("after", "").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
     @Test
     @DisplayName("GET /api/v1/admin/cards/all/{userId} as ADMIN returns user cards")
     void getAllForUser_AsAdmin() throws Exception {
         String uid = UUID.randomUUID().toString();
         CardDTO c = new CardDTO(UUID.fromString(uid), "Owner", "****2222", LocalDate.now(), null, BigDecimal.ZERO);
-        CardPageDTO page = new CardPageDTO(List.of(c), 0, 1, 1, 1);
+        CardPageDTO page = new CardPageDTO(List.of(c), 0, 1, 1, 1, null);
         when(cardService.getCardsByUserId(eq(uid), anyString(), anyInt(), anyInt())).thenReturn(page);
         mockMvc.perform(get("/api/v1/admin/cards/all/{userId}", uid)
                         .with(user("admin").roles("ADMIN"))
@@ -98,6 +117,40 @@ class AdminCardControllerTest {
                 .andExpect(jsonPath("$.maskedNumber").value("****4444"));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/admin/cards/bulk as ADMIN returns issued count")
+    void createCards_AsAdmin() throws Exception {
+        String uid = UUID.randomUUID().toString();
+        when(cardIssuanceService.issueCards(eq(List.of(uid)), eq(3), eq(BigDecimal.valueOf(50))))
+                .thenReturn(new BulkCreateCardsResponseDTO(3, 3));
+        String json = String.format("{\"userIds\":[\"%s\"],\"cardsPerUser\":3,\"initialBalance\":50}", uid);
+        mockMvc.perform(post("/api/v1/admin/cards/bulk")
+                        .with(user("admin").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.issued").value(3));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/admin/cards/bulk reports how many cards were issued before a failure")
+    void createCards_PartialFailure() throws Exception {
+        String uid = UUID.randomUUID().toString();
+        when(cardIssuanceService.issueCards(anyList(), anyInt(), any()))
+                .thenThrow(new BulkIssuanceException(3000, 2000, new IllegalStateException("db down")));
+        String json = String.format("{\"userIds\":[\"%s\"],\"cardsPerUser\":3000}", uid);
+        mockMvc.perform(post("/api/v1/admin/cards/bulk")
+                        .with(user("admin").roles("ADMIN"))
+                        .with(csrf())
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.requested").value(3000))
+                .andExpect(jsonPath("$.issued").value(2000));
+    }
+
     @Test
     @DisplayName("PATCH /api/v1/admin/cards/{cardId}/status as ADMIN returns success")
     void changeCardStatus_AsAdmin() throws Exception {
@@ -111,6 +164,19 @@ class AdminCardControllerTest {
                 .andExpect(content().string("Updated successfully"));
     }
 
+    @Test
+    @DisplayName("PATCH /api/v1/admin/cards/{cardId}/balance-slots as ADMIN returns success")
+    void changeBalanceSlots_AsAdmin() throws Exception {
+        String cid = "card123";
+        doNothing().when(cardService).updateBalanceSlots(cid, 8);
+        mockMvc.perform(patch("/api/v1/admin/cards/{cardId}/balance-slots", cid)
+                        .with(user("admin").roles("ADMIN"))
+                        .with(csrf())
+                        .param("slots", "8"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Updated successfully"));
+    }
+
     @Test
     @DisplayName("DELETE /api/v1/admin/cards/{cardId}/delete as ADMIN returns success")
     void deleteCard_AsAdmin() throws Exception {
@@ -41,7 +41,7 @@ class AdminUserControllerTest {
     @DisplayName("GET /api/v1/admin/users/all returns page of users for ADMIN")
     void getAllUsers_ShouldReturnPage() throws Exception {
         UserDTO u = new UserDTO(java.util.UUID.randomUUID(), "Alice", "aliceUser", null, LocalDateTime.now());
-        UserPageDTO page = new UserPageDTO(List.of(u), 0, 1, 1, 1);
+        UserPageDTO page = new UserPageDTO(List.of(u), 0, 1, 1, 1, null);
         when(userService.getAllUsers(anyInt(), anyInt(), anyString())).thenReturn(page);
         mockMvc.perform(get("/api/v1/admin/users/all")
                         .with(user("admin").roles("ADMIN"))
@@ -0,0 +1,112 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.security.JwtAuthFilter;
+import com.example.bankcards.security.JwtUtil;
+import com.example.bankcards.service.AsyncCardReadService;
+import com.example.bankcards.service.CardService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AsyncCardController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import(AsyncCardReadService.class)
+class AsyncCardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CardService cardService;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private JwtAuthFilter jwtAuthFilter;
+
+    private CardDTO card(String last4) {
+        return new CardDTO(UUID.randomUUID(), "Owner", "**** **** **** " + last4, LocalDate.now(),
+                CardStatus.ACTIVE, BigDecimal.TEN);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/cards/async/all streams every page as NDJSON")
+    void streamCurrentUserCards_ShouldWriteOneLinePerCard() throws Exception {
+        when(cardService.listAllCardForCurrentUserAfter(isNull(), eq(""), anyInt()))
+                .thenReturn(CardPageDTO.builder().content(List.of(card("1111"), card("2222")))
+                        .nextCursor("next").build());
+        when(cardService.listAllCardForCurrentUserAfter(isNull(), eq("next"), anyInt()))
+                .thenReturn(CardPageDTO.builder().content(List.of(card("3333"))).build());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/cards/async/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern(
+                        "(?s)\\{[^\\n]*1111[^\\n]*}\\n\\{[^\\n]*2222[^\\n]*}\\n\\{[^\\n]*3333[^\\n]*}\\n")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/cards/async/all rejects an unknown status before streaming")
+    void streamCurrentUserCards_ShouldRejectBadStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/cards/async/all").param("status", "WRONG"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(cardService);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/cards/async/{cardId}/balance returns the balance")
+    void checkBalance_ShouldReturnBalance() throws Exception {
+        String cardId = UUID.randomUUID().toString();
+        when(cardService.checkBalance(cardId)).thenReturn("150.00");
+
+        MvcResult result = mockMvc.perform(get("/api/v1/cards/async/{cardId}/balance", cardId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("150.00"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/cards/async/{cardId}/balance maps service errors like the blocking endpoint")
+    void checkBalance_ShouldMapNotFound() throws Exception {
+        String cardId = UUID.randomUUID().toString();
+        when(cardService.checkBalance(cardId)).thenThrow(new NotFoundException("Card not found"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/cards/async/{cardId}/balance", cardId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+}
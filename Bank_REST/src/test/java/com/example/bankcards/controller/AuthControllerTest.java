@@ -16,6 +16,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -71,4 +72,15 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(dummyToken));
     }
+
+    @Test
+    @DisplayName("POST /api/v1/auth/logout revokes the bearer token")
+    void logout_ShouldRevokeToken() throws Exception {
+        doNothing().when(authServiceImpl).logout("mocked.jwt.token");
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .header("Authorization", "Bearer mocked.jwt.token"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Logged out successfully"));
+        verify(authServiceImpl).logout("mocked.jwt.token");
+    }
 }
@@ -94,7 +94,7 @@ class CardControllerTest {
     @DisplayName("POST /api/v1/cards/transfers returns response DTO")
     void transfer_ShouldReturnTransferResponse() throws Exception {
         TransferResponseDTO resp = new TransferResponseDTO("1234", "5678", BigDecimal.valueOf(50), LocalDateTime.now());
-        when(cardService.transfer(any(TransferRequestDTO.class))).thenReturn(resp);
+        when(cardService.transfer(any(TransferRequestDTO.class), isNull())).thenReturn(resp);
         String json = """
                 {
                   "fromCard": "1234",
@@ -110,6 +110,47 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.amount").value(50));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/cards/transfers passes the Idempotency-Key header to the service")
+    void transfer_WithIdempotencyKey_ShouldPassKey() throws Exception {
+        TransferResponseDTO resp = new TransferResponseDTO("1234", "5678", BigDecimal.valueOf(50), LocalDateTime.now());
+        when(cardService.transfer(any(TransferRequestDTO.class), eq("retry-1"))).thenReturn(resp);
+        String json = """
+                {
+                  "fromCard": "1234",
+                  "toCard": "5678",
+                  "amount": 50
+                }
+                """;
+        mockMvc.perform(post("/api/v1/cards/transfers")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.toCardNumber").value("5678"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/cards/transfers/batch returns per-item results")
+    void transferBatch_ShouldReturnResults() throws Exception {
+        BatchTransferResponseDTO resp = new BatchTransferResponseDTO(1, 1, List.of(
+                new BatchTransferItemResultDTO(0, true, null),
+                new BatchTransferItemResultDTO(1, false, "Insufficient funds in source card.")));
+        when(cardService.transferBatch(anyList())).thenReturn(resp);
+        String json = """
+                [
+                  {"fromCard": "1234", "toCard": "5678", "amount": 50},
+                  {"fromCard": "1234", "toCard": "5678", "amount": 5000}
+                ]
+                """;
+        mockMvc.perform(post("/api/v1/cards/transfers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[1].success").value(false));
+    }
+
     @Test
     @DisplayName("GET /api/v1/cards/{cardId}/balance returns balance string")
     void checkBalance_ShouldReturnBalance() throws Exception {
@@ -118,4 +159,21 @@ class CardControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("100.00"));
     }
+
+    @Test
+    @DisplayName("GET /api/v1/cards/{cardId}/transfers returns a page of transfer history")
+    void listTransfers_ShouldReturnPage() throws Exception {
+        UUID cardId = UUID.randomUUID();
+        TransferHistoryItemDTO item = new TransferHistoryItemDTO(UUID.randomUUID(),
+                TransferHistoryItemDTO.TransferDirection.INCOMING, UUID.randomUUID(), BigDecimal.TEN,
+                LocalDateTime.now());
+        when(cardService.listTransfers(cardId.toString(), "cursor", 5)).thenReturn(
+                TransferHistoryPageDTO.builder().content(List.of(item)).size(5).nextCursor("next").build());
+        mockMvc.perform(get("/api/v1/cards/{cardId}/transfers", cardId.toString())
+                        .param("after", "cursor")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].direction").value("INCOMING"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
 }
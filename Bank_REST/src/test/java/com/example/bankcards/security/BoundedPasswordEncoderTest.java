@@ -0,0 +1,99 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should hash and verify on the hashing pool")
+    void testEncodeAndMatch() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, 2, 4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash whenever the stored cost differs from the configured one")
+    void testUpgradeEncoding() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 1, Duration.ofSeconds(5));
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject a hash when every thread is busy and the queue is full")
+    void testSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 10, 1, 0, Duration.ofSeconds(5));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        Future<String> first = caller.submit(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.matches("b", "hash"));
+
+        release.countDown();
+        assertEquals("hash", first.get(5, TimeUnit.SECONDS));
+        caller.shutdown();
+        encoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should give up on a hash that waits longer than the timeout")
+    void testTimeout() {
+        PasswordEncoder stuck = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    Thread.sleep(1_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(stuck, 4, 1, 1, Duration.ofMillis(50));
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.matches("a", "hash"));
+        encoder.shutdown();
+    }
+}
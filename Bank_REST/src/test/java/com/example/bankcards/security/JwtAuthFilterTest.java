@@ -0,0 +1,113 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDetailsImpl;
+import com.example.bankcards.exception.InvalidJwtToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    @Mock
+    UserDetailServiceImpl userDetailService;
+
+    @Mock
+    TokenRevocationList revocationList;
+
+    JwtUtil jwtUtil;
+    JwtAuthFilter filter;
+
+    UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        jwtUtil.init();
+        filter = new JwtAuthFilter(jwtUtil, userDetailService, revocationList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest requestWith(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should authenticate from the token claims without loading the user")
+    void testStatelessPrincipal() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+        String token = jwtUtil.generateToken(userId, "alice", Role.ADMIN);
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl principal = (UserDetailsImpl) auth.getPrincipal();
+        assertEquals(userId, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(Role.ADMIN, principal.getRole());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+        verifyNoInteractions(userDetailService);
+    }
+
+    @Test
+    @DisplayName("Should load the user when the stateless principal is disabled")
+    void testDatabasePrincipal() throws Exception {
+        String token = jwtUtil.generateToken(userId, "alice", Role.USER);
+        User user = User.builder().id(userId).username("alice").role(Role.USER).build();
+        when(userDetailService.loadUserByUsername("alice")).thenReturn(new UserDetailsImpl(user));
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        UserDetailsImpl principal = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertSame(user, principal.getUser());
+    }
+
+    @Test
+    @DisplayName("Should leave the request unauthenticated when the token is revoked")
+    void testRevokedToken() throws Exception {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+        String token = jwtUtil.generateToken(userId, "alice", Role.USER);
+        when(revocationList.isRevoked(jwtUtil.extractClaims(token).getId())).thenReturn(true);
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should reject a tampered token in stateless mode")
+    void testStatelessPrincipal_TamperedToken() {
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+        String token = jwtUtil.generateToken(userId, "alice", Role.USER);
+
+        assertThrows(InvalidJwtToken.class, () -> filter.doFilter(
+                requestWith(token + "x"), new MockHttpServletResponse(), new MockFilterChain()));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailService, never()).loadUserByUsername(anyString());
+    }
+}
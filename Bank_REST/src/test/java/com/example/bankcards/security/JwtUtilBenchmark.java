@@ -0,0 +1,76 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rough per-request cost of token checks in {@link JwtAuthFilter}: the previous implementation (a new parser
+ * for {@code validateToken} and again for {@code extractUserName}), one parse with a reused parser, and the
+ * verified-token cache. Not a unit test; run after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes:<deps> com.example.bankcards.security.JwtUtilBenchmark}.
+ */
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final int TOKENS = 1_000;
+    private static final int ROUNDS = 100;
+
+    public static void main(String[] args) throws Exception {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        jwtUtil.init();
+
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(jwtUtil.generateToken(UUID.randomUUID(), "user" + i, Role.USER));
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1;
+            measure("parser per call, x2", report, () -> {
+                for (String token : tokens) {
+                    Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+                    Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+                }
+            });
+            measure("reused parser, x1", report, () -> {
+                var parser = Jwts.parser().verifyWith(key).build();
+                for (String token : tokens) {
+                    parser.parseSignedClaims(token).getPayload().getSubject();
+                }
+            });
+            measure("verified-token cache", report, () -> {
+                for (String token : tokens) {
+                    jwtUtil.extractPrincipal(token);
+                }
+            });
+        }
+        System.out.printf("cache hit ratio %.3f%n", jwtUtil.tokenCacheStats().hitRate());
+    }
+
+    private static void measure(String name, boolean report, Task task) throws Exception {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            task.run();
+        }
+        long perCall = (System.nanoTime() - start) / ((long) ROUNDS * TOKENS);
+        if (report) {
+            System.out.printf("%-22s %6d ns/op%n", name, perCall);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
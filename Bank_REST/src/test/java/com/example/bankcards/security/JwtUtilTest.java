@@ -0,0 +1,78 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.exception.InvalidJwtToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        jwtUtil.init();
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve repeated lookups from the cache")
+    void testRepeatedTokenIsCached() {
+        UUID id = UUID.randomUUID();
+        String token = jwtUtil.generateToken(id, "alice", Role.USER);
+
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("alice", jwtUtil.extractUserName(token));
+        assertEquals(id, jwtUtil.extractId(token));
+
+        assertEquals(1, jwtUtil.tokenCacheStats().missCount());
+        assertEquals(2, jwtUtil.tokenCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Should still reject a tampered copy of a cached token")
+    void testTamperedTokenNotServedFromCache() {
+        String token = jwtUtil.generateToken(UUID.randomUUID(), "alice", Role.USER);
+        jwtUtil.validateToken(token);
+
+        String[] parts = token.split("\\.");
+        String forged = Jwts.builder()
+                .subject("mallory")
+                .claim("id", UUID.randomUUID().toString())
+                .claim("role", "ADMIN")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-00".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        String spliced = forged.split("\\.")[0] + "." + forged.split("\\.")[1] + "." + parts[2];
+
+        assertThrows(InvalidJwtToken.class, () -> jwtUtil.validateToken(spliced));
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens without an expiry")
+    void testTokenWithoutExpiryNotCached() {
+        String token = Jwts.builder()
+                .subject("alice")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        jwtUtil.validateToken(token);
+        jwtUtil.validateToken(token);
+
+        assertEquals(0, jwtUtil.tokenCacheStats().hitCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    TokenRevocationList revocationList;
+
+    @Test
+    @DisplayName("Should report a token revoked on this instance without another query")
+    void testRevoke() {
+        String jti = UUID.randomUUID().toString();
+
+        revocationList.revoke(jti, new Date(System.currentTimeMillis() + 60_000));
+
+        assertTrue(revocationList.isRevoked(jti));
+        assertFalse(revocationList.isRevoked(UUID.randomUUID().toString()));
+        assertFalse(revocationList.isRevoked(null));
+        verify(revokedTokenRepository).save(argThat(t -> t.getJti().toString().equals(jti)));
+    }
+
+    @Test
+    @DisplayName("Should pick up revocations from other instances and forget expired ones on refresh")
+    void testRefresh() {
+        UUID active = UUID.randomUUID();
+        UUID expiring = UUID.randomUUID();
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any()))
+                .thenReturn(List.of(
+                        RevokedToken.builder().jti(active).expiresAt(LocalDateTime.now().plusHours(1)).build(),
+                        RevokedToken.builder().jti(expiring).expiresAt(LocalDateTime.now().plusNanos(1)).build()))
+                .thenReturn(List.of());
+
+        revocationList.refresh();
+        assertTrue(revocationList.isRevoked(active.toString()));
+
+        revocationList.refresh();
+        assertTrue(revocationList.isRevoked(active.toString()));
+        assertFalse(revocationList.isRevoked(expiring.toString()));
+    }
+
+    @Test
+    @DisplayName("Should only ask for revocations made since the previous refresh")
+    void testRefresh_Incremental() {
+        when(revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(any(), any())).thenReturn(List.of());
+
+        revocationList.refresh();
+        revocationList.refresh();
+
+        verify(revokedTokenRepository).findByRevokedAtAfterAndExpiresAtAfter(
+                argThat(since -> since.getYear() < 2000), any());
+        verify(revokedTokenRepository).findByRevokedAtAfterAndExpiresAtAfter(
+                argThat(since -> since.isAfter(LocalDateTime.now().minusMinutes(2))), any());
+    }
+}
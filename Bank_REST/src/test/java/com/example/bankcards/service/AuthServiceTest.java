@@ -10,7 +10,10 @@ import com.example.bankcards.entity.UserDetailsImpl;
 import com.example.bankcards.exception.InternalServerException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtUtil;
+import com.example.bankcards.security.TokenRevocationList;
 import com.example.bankcards.service.impl.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,6 +27,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,6 +44,8 @@ class AuthServiceTest {
     private JwtUtil jwtUtil;
     @Mock
     private AuthenticationManager authenticationManager;
+    @Mock
+    private TokenRevocationList revocationList;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -127,5 +133,24 @@ class AuthServiceTest {
         assertThrows(BadCredentialsException.class, () -> authService.login(loginDTO));
     }
 
-}
+    @Test
+    @DisplayName("Should revoke the token's jti until its expiry on logout")
+    void testLogout() {
+        Date expiry = new Date(System.currentTimeMillis() + 60_000);
+        Claims claims = Jwts.claims().id("5f0c3f4e-8f5e-4a4c-9d55-0b6f1d6a1c11").expiration(expiry).build();
+        when(jwtUtil.extractClaims("token")).thenReturn(claims);
+
+        authService.logout("token");
+
+        verify(revocationList).revoke("5f0c3f4e-8f5e-4a4c-9d55-0b6f1d6a1c11", claims.getExpiration());
+    }
+
+    @Test
+    @DisplayName("Should refuse to log out a token without a jti")
+    void testLogout_NoJti() {
+        when(jwtUtil.extractClaims("token")).thenReturn(Jwts.claims().subject("testuser").build());
 
+        assertThrows(IllegalArgumentException.class, () -> authService.logout("token"));
+        verifyNoInteractions(revocationList);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.FingerprintUtilImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CardFingerprintFilterTest {
+
+    @Mock
+    CardRepository cardRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    CardFingerprintFilter fingerprintFilter;
+
+    private final FingerprintUtilImpl fingerprintUtil = new FingerprintUtilImpl("fingerprint-test-key");
+
+    @Test
+    @DisplayName("Should answer 'maybe' for every number until the fingerprints are loaded")
+    void testNotLoaded() {
+        assertTrue(fingerprintFilter.mightContain(fingerprintUtil.fingerprint("4000000000000001")));
+    }
+
+    @Test
+    @DisplayName("Should contain loaded and added fingerprints and reject almost all others")
+    void testLoadAndLookup() {
+        when(cardRepository.streamAllFingerprints()).thenReturn(
+                IntStream.range(0, 10_000).mapToObj(i -> fingerprintUtil.fingerprint("4000" + String.format("%012d", i))));
+
+        fingerprintFilter.load();
+        fingerprintFilter.add(fingerprintUtil.fingerprint("5000000000000000"));
+
+        assertTrue(fingerprintFilter.mightContain(fingerprintUtil.fingerprint("4000000000001234")));
+        assertTrue(fingerprintFilter.mightContain(fingerprintUtil.fingerprint("5000000000000000")));
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> fingerprintFilter.mightContain(fingerprintUtil.fingerprint("6000" + String.format("%012d", i))))
+                .count();
+        assertTrue(falsePositives < 50, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should produce stable keyed fingerprints")
+    void testFingerprint() {
+        String fingerprint = fingerprintUtil.fingerprint("4000123412341234");
+
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, fingerprintUtil.fingerprint("4000123412341234"));
+        assertNotEquals(fingerprint, new FingerprintUtilImpl("another-key").fingerprint("4000123412341234"));
+    }
+}
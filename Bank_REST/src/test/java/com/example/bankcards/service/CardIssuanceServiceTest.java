@@ -0,0 +1,185 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.BulkCreateCardsResponseDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.BulkIssuanceException;
+import com.example.bankcards.exception.NotFoundException;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
+import com.example.bankcards.service.impl.CardIssuanceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CardIssuanceServiceTest {
+
+    @Mock
+    CardRepository cardRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    UniqueCardNumberGenerator cardNumberGenerator;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    CardIssuanceServiceImpl issuanceService;
+
+    UUID userId = UUID.randomUUID();
+    List<Card> savedCards = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        issuanceService = new CardIssuanceServiceImpl(cardRepository, userRepository, ledgerEntryRepository,
+                cardNumberGenerator, transactionManager);
+        ReflectionTestUtils.setField(issuanceService, "chunkSize", 4);
+    }
+
+    private List<GeneratedCardNumber> numbers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new GeneratedCardNumber(new byte[]{1}, UUID.randomUUID().toString(), "1234"))
+                .toList();
+    }
+
+    private void stubUserAndSave() {
+        when(cardNumberGenerator.generate(anyInt())).thenAnswer(inv -> numbers(inv.getArgument(0)));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(userId));
+        when(userRepository.getReferenceById(userId)).thenReturn(User.builder().id(userId).build());
+        when(cardRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Card> cards = inv.getArgument(0);
+            cards.forEach(card -> card.setId(UUID.randomUUID()));
+            savedCards.addAll(cards);
+            return cards;
+        });
+    }
+
+    @Test
+    @DisplayName("Should issue every card in chunks with a ledger entry each")
+    void testIssueCards() {
+        stubUserAndSave();
+
+        BulkCreateCardsResponseDTO result = issuanceService.issueCards(
+                List.of(userId.toString()), 10, BigDecimal.valueOf(25));
+
+        assertEquals(10, result.requested());
+        assertEquals(10, result.issued());
+        verify(cardNumberGenerator, times(2)).generate(4);
+        verify(cardNumberGenerator).generate(2);
+        verify(cardRepository, times(3)).saveAll(anyList());
+        verify(ledgerEntryRepository, times(3)).saveAll(anyList());
+        assertEquals(10, savedCards.stream().map(Card::getCardNumberFingerprint).distinct().count());
+        assertEquals(BigDecimal.valueOf(25), savedCards.get(0).getBalance());
+    }
+
+    @Test
+    @DisplayName("Should default a missing initial balance to zero without ledger entries")
+    void testIssueCards_NoBalance() {
+        stubUserAndSave();
+
+        BulkCreateCardsResponseDTO result = issuanceService.issueCards(List.of(userId.toString()), 2, null);
+
+        assertEquals(2, result.issued());
+        assertEquals(BigDecimal.ZERO, savedCards.get(0).getBalance());
+        verify(ledgerEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should redraw a chunk that hits the unique index")
+    void testIssueCards_RetriesChunkOnCollision() {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(userId));
+        when(userRepository.getReferenceById(userId)).thenReturn(User.builder().id(userId).build());
+        when(cardNumberGenerator.generate(2)).thenAnswer(inv -> numbers(2));
+        when(cardRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        BulkCreateCardsResponseDTO result = issuanceService.issueCards(
+                List.of(userId.toString()), 2, BigDecimal.ZERO);
+
+        assertEquals(2, result.issued());
+        verify(cardRepository, times(2)).saveAll(anyList());
+        verify(cardNumberGenerator, times(2)).generate(2);
+    }
+
+    @Test
+    @DisplayName("Should report the cards already issued when a later chunk fails")
+    void testIssueCards_PartialFailure() {
+        stubUserAndSave();
+        reset(ledgerEntryRepository);
+        when(ledgerEntryRepository.saveAll(anyList()))
+                .thenReturn(List.of())
+                .thenThrow(new IllegalStateException("db down"));
+
+        BulkIssuanceException e = assertThrows(BulkIssuanceException.class, () -> issuanceService.issueCards(
+                List.of(userId.toString()), 10, BigDecimal.ONE));
+
+        assertEquals(10, e.getRequested());
+        assertEquals(4, e.getIssued());
+    }
+
+    @Test
+    @DisplayName("Should reject the request when a user does not exist")
+    void testIssueCards_UnknownUser() {
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(userId));
+
+        assertThrows(NotFoundException.class, () -> issuanceService.issueCards(
+                List.of(userId.toString(), unknown.toString()), 1, BigDecimal.TEN));
+        verify(cardRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should check user existence in chunks rather than one oversized IN list")
+    void testIssueCards_ChecksUsersInChunks() {
+        List<UUID> users = IntStream.range(0, 10).mapToObj(i -> UUID.randomUUID()).toList();
+        when(userRepository.findExistingIds(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            assertTrue(ids.size() <= 4);
+            return List.copyOf(ids);
+        });
+        when(userRepository.getReferenceById(any())).thenAnswer(inv -> User.builder().id(inv.getArgument(0)).build());
+        when(cardNumberGenerator.generate(anyInt())).thenAnswer(inv -> numbers(inv.getArgument(0)));
+        when(cardRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BulkCreateCardsResponseDTO result = issuanceService.issueCards(
+                users.stream().map(UUID::toString).toList(), 1, BigDecimal.ZERO);
+
+        assertEquals(10, result.issued());
+        verify(userRepository, times(3)).findExistingIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should reject requests above the per-request card limit")
+    void testIssueCards_TooManyCards() {
+        ReflectionTestUtils.setField(issuanceService, "maxCards", 5);
+
+        assertThrows(IllegalArgumentException.class, () -> issuanceService.issueCards(
+                List.of(userId.toString(), UUID.randomUUID().toString()), 3, BigDecimal.TEN));
+        verifyNoInteractions(userRepository, cardRepository);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.EncryptionKeyRotation;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.EncryptionKeyRotationRepository;
+import com.example.bankcards.service.impl.CardKeyRotationServiceImpl;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CardKeyRotationServiceTest {
+
+    @Mock
+    CardRepository cardRepository;
+    @Mock
+    EncryptionKeyRotationRepository rotationRepository;
+
+    EncryptionUtilImpl encryptionUtil;
+    CardKeyRotationServiceImpl rotationService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionUtil = new EncryptionUtilImpl("1234567890123456");
+        rotationService = new CardKeyRotationServiceImpl(cardRepository, rotationRepository, encryptionUtil);
+    }
+
+    private void activateSecondKey() {
+        ReflectionTestUtils.setField(encryptionUtil, "additionalKeys", "2:abcdefghijklmnop");
+        ReflectionTestUtils.setField(encryptionUtil, "activeKeyId", 2);
+        encryptionUtil.init();
+    }
+
+    @Test
+    @DisplayName("Should re-encrypt a chunk with the active key and remember the position")
+    void testRotateChunk() {
+        Card card = Card.builder().id(UUID.randomUUID())
+                .cardNumberCipher(encryptionUtil.encryptBinary("4000123412341234")).build();
+        activateSecondKey();
+        EncryptionKeyRotation rotation = EncryptionKeyRotation.builder().keyId(2).build();
+        when(rotationRepository.findById(2)).thenReturn(Optional.of(rotation));
+        when(cardRepository.findCardNumbersToReEncrypt(new UUID(0, 0), 2, 100)).thenReturn(List.of(card));
+
+        int rotated = rotationService.rotateChunk(100);
+
+        assertEquals(1, rotated);
+        assertEquals(2, encryptionUtil.keyIdOf(card.getCardNumberCipher()));
+        assertEquals("4000123412341234", encryptionUtil.decryptBinary(card.getCardNumberCipher()));
+        assertEquals(card.getId(), rotation.getLastCardId());
+        assertEquals(1, rotation.getRotatedRows());
+    }
+
+    @Test
+    @DisplayName("Should restart from the beginning when rows behind the cursor still use an old key")
+    void testRotateChunk_Stragglers() {
+        UUID lastId = UUID.randomUUID();
+        EncryptionKeyRotation rotation = EncryptionKeyRotation.builder().keyId(1).lastCardId(lastId).build();
+        when(rotationRepository.findById(1)).thenReturn(Optional.of(rotation));
+        when(cardRepository.findCardNumbersToReEncrypt(lastId, 1, 100)).thenReturn(List.of());
+        when(cardRepository.existsCardNumberNotEncryptedWith(1)).thenReturn(true);
+
+        assertEquals(0, rotationService.rotateChunk(100));
+        assertNull(rotation.getLastCardId());
+        assertNull(rotation.getCompletedAt());
+    }
+
+    @Test
+    @DisplayName("Should mark the rotation complete and stop querying cards")
+    void testRotateChunk_Complete() {
+        EncryptionKeyRotation rotation = EncryptionKeyRotation.builder().keyId(1).build();
+        when(rotationRepository.findById(1)).thenReturn(Optional.of(rotation));
+        when(cardRepository.findCardNumbersToReEncrypt(any(), eq(1), eq(100))).thenReturn(List.of());
+        when(cardRepository.existsCardNumberNotEncryptedWith(1)).thenReturn(false);
+
+        assertEquals(0, rotationService.rotateChunk(100));
+        assertNotNull(rotation.getCompletedAt());
+
+        clearInvocations(cardRepository);
+        assertEquals(0, rotationService.rotateChunk(100));
+        verifyNoInteractions(cardRepository);
+    }
+}
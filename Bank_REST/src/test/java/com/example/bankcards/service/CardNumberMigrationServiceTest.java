@@ -0,0 +1,56 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.impl.CardNumberMigrationServiceImpl;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CardNumberMigrationServiceTest {
+
+    @Mock
+    CardRepository cardRepository;
+
+    EncryptionUtilImpl encryptionUtil = new EncryptionUtilImpl("1234567890123456");
+    CardNumberMigrationServiceImpl migrationService;
+
+    @BeforeEach
+    void setUp() {
+        migrationService = new CardNumberMigrationServiceImpl(cardRepository, encryptionUtil);
+    }
+
+    @Test
+    @DisplayName("Should move legacy text ciphertexts to the binary format")
+    void testMigrateBatch() {
+        Card card = Card.builder()
+                .id(UUID.randomUUID())
+                .cardNumber(encryptionUtil.encrypt("4000123412341234"))
+                .build();
+        when(cardRepository.findLegacyCardNumbersForUpdate(50)).thenReturn(List.of(card));
+
+        int migrated = migrationService.migrateBatch(50);
+
+        assertEquals(1, migrated);
+        assertNull(card.getCardNumber());
+        assertEquals("4000123412341234", encryptionUtil.decryptBinary(card.getCardNumberCipher()));
+    }
+
+    @Test
+    @DisplayName("Should report zero when no legacy rows remain")
+    void testMigrateBatch_Nothing() {
+        when(cardRepository.findLegacyCardNumbersForUpdate(50)).thenReturn(List.of());
+
+        assertEquals(0, migrationService.migrateBatch(50));
+    }
+}
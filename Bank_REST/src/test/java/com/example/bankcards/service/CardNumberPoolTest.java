@@ -0,0 +1,156 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.CardNumberPoolEntry;
+import com.example.bankcards.repository.CardNumberPoolRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class CardNumberPoolTest {
+
+    @Mock
+    CardNumberPoolRepository poolRepository;
+
+    @Mock
+    CardRepository cardRepository;
+
+    @Mock
+    UniqueCardNumberGenerator generator;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    EncryptionUtilImpl encryptionUtil = new EncryptionUtilImpl("1234567890123456");
+    CardNumberPool cardNumberPool;
+
+    @BeforeEach
+    void setUp() {
+        cardNumberPool = new CardNumberPool(poolRepository, cardRepository, generator, encryptionUtil, transactionManager);
+        ReflectionTestUtils.setField(cardNumberPool, "targetSize", 10);
+        ReflectionTestUtils.setField(cardNumberPool, "lowWaterMark", 4);
+        ReflectionTestUtils.setField(cardNumberPool, "refillChunkSize", 3);
+    }
+
+    private List<GeneratedCardNumber> numbers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new GeneratedCardNumber(new byte[]{1}, UUID.randomUUID().toString(), "1234"))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should hand out and remove the oldest pooled number")
+    void testClaim() {
+        CardNumberPoolEntry entry = CardNumberPoolEntry.builder()
+                .id(UUID.randomUUID())
+                .cardNumberCipher(encryptionUtil.encryptBinary("4000123412341234"))
+                .cardNumberFingerprint("fp")
+                .cardNumberLast4("1234")
+                .build();
+        when(poolRepository.lockNext()).thenReturn(Optional.of(entry));
+
+        GeneratedCardNumber number = cardNumberPool.claim();
+
+        assertSame(entry.getCardNumberCipher(), number.encryptedNumber());
+        assertEquals("fp", number.fingerprint());
+        assertEquals("1234", number.last4());
+        verify(poolRepository).delete(entry);
+        verifyNoInteractions(generator);
+    }
+
+    @Test
+    @DisplayName("Should re-encrypt a pooled number written under a retired key")
+    void testClaim_ReEncryptsWithActiveKey() {
+        EncryptionUtilImpl oldKeyUtil = new EncryptionUtilImpl("1234567890123456");
+        ReflectionTestUtils.setField(encryptionUtil, "additionalKeys", "2:abcdefghijklmnop");
+        ReflectionTestUtils.setField(encryptionUtil, "activeKeyId", 2);
+        encryptionUtil.init();
+        CardNumberPoolEntry entry = CardNumberPoolEntry.builder()
+                .cardNumberCipher(oldKeyUtil.encryptBinary("4000123412341234"))
+                .cardNumberFingerprint("fp")
+                .cardNumberLast4("1234")
+                .build();
+        when(poolRepository.lockNext()).thenReturn(Optional.of(entry));
+
+        GeneratedCardNumber number = cardNumberPool.claim();
+
+        assertEquals(2, encryptionUtil.keyIdOf(number.encryptedNumber()));
+        assertEquals("4000123412341234", encryptionUtil.decryptBinary(number.encryptedNumber()));
+    }
+
+    @Test
+    @DisplayName("Should discard a pooled number issued since it was pooled and hand out the next one")
+    void testClaim_SkipsIssuedNumber() {
+        CardNumberPoolEntry stale = CardNumberPoolEntry.builder()
+                .id(UUID.randomUUID())
+                .cardNumberCipher(encryptionUtil.encryptBinary("4000123412341234"))
+                .cardNumberFingerprint("taken")
+                .cardNumberLast4("1234")
+                .build();
+        CardNumberPoolEntry fresh = CardNumberPoolEntry.builder()
+                .id(UUID.randomUUID())
+                .cardNumberCipher(encryptionUtil.encryptBinary("4000123412345678"))
+                .cardNumberFingerprint("free")
+                .cardNumberLast4("5678")
+                .build();
+        when(poolRepository.lockNext()).thenReturn(Optional.of(stale)).thenReturn(Optional.of(fresh));
+        when(cardRepository.existsByCardNumberFingerprint("taken")).thenReturn(true);
+        when(cardRepository.existsByCardNumberFingerprint("free")).thenReturn(false);
+
+        GeneratedCardNumber number = cardNumberPool.claim();
+
+        assertEquals("free", number.fingerprint());
+        verify(poolRepository).delete(stale);
+        verify(poolRepository).delete(fresh);
+        verify(poolRepository).flush();
+        verifyNoInteractions(generator);
+    }
+
+    @Test
+    @DisplayName("Should generate a number when the pool is empty")
+    void testClaim_EmptyPool() {
+        when(poolRepository.lockNext()).thenReturn(Optional.empty());
+        List<GeneratedCardNumber> generated = numbers(1);
+        when(generator.generate(1)).thenReturn(generated);
+
+        assertSame(generated.get(0), cardNumberPool.claim());
+        verify(poolRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Should top the pool up to its target in chunks once below the low-water mark")
+    void testRefill() {
+        when(poolRepository.count()).thenReturn(3L);
+        when(generator.generate(anyInt())).thenAnswer(inv -> numbers(inv.getArgument(0)));
+
+        assertEquals(7, cardNumberPool.refill());
+        verify(generator, times(2)).generate(3);
+        verify(generator).generate(1);
+        verify(poolRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should leave the pool alone while it is above the low-water mark")
+    void testRefill_AboveLowWaterMark() {
+        when(poolRepository.count()).thenReturn(4L);
+
+        assertEquals(0, cardNumberPool.refill());
+        verifyNoInteractions(generator);
+    }
+}
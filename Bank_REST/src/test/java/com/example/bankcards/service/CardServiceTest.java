@@ -1,26 +1,41 @@
 package com.example.bankcards.service;
 
 
+import com.example.bankcards.dto.BatchTransferResponseDTO;
 import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.CardPageDTO;
+import com.example.bankcards.dto.CardSummaryDTO;
+import com.example.bankcards.dto.TransferHistoryItemDTO.TransferDirection;
+import com.example.bankcards.dto.TransferHistoryPageDTO;
 import com.example.bankcards.dto.TransferRequestDTO;
 import com.example.bankcards.dto.TransferResponseDTO;
 import com.example.bankcards.entity.*;
+import com.example.bankcards.exception.ConflictException;
 import com.example.bankcards.exception.ForbiddenRequestException;
 import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
 import com.example.bankcards.repository.TransferRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.impl.CardServiceImpl;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
 import com.example.bankcards.util.EncryptionUtil;
+import com.example.bankcards.util.PageCursor;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -35,10 +50,19 @@ class CardServiceTest {
     EncryptionUtil encryptionUtil;
     @Mock UserRepository userRepository;
     @Mock TransferRepository transferRepository;
+    @Mock TransferIdempotencyCache idempotencyCache;
+    @Mock LedgerEntryRepository ledgerEntryRepository;
+    @Mock StripedBalanceService stripedBalanceService;
+    @Mock OutboxService outboxService;
+    @Mock CardNumberPool cardNumberPool;
+    @Mock ReadYourWritesWindow readYourWritesWindow;
 
     @InjectMocks
     CardServiceImpl cardService;
 
+    @Captor
+    ArgumentCaptor<List<LedgerEntry>> ledgerEntries;
+
     UUID userId;
     UserDetailsImpl principal;
     Authentication authentication;
@@ -75,14 +99,13 @@ class CardServiceTest {
         Card card = Card.builder()
                 .id(cardId)
                 .user(user)
-                .cardNumber("encryptedNum")
+                .cardNumber("encryptedNum").cardNumberLast4("3456")
                 .expirationDate(LocalDate.now().plusYears(2))
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(BigDecimal.TEN)
                 .build();
         when(authentication.getPrincipal()).thenReturn(principal);
         when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
-        when(encryptionUtil.decrypt("encryptedNum")).thenReturn("1234567890123456");
 
         CardDTO dto = cardService.getCardById(cardId.toString());
         assertEquals(cardId, dto.id());
@@ -90,6 +113,40 @@ class CardServiceTest {
         assertTrue(dto.maskedNumber().startsWith("**** **** **** "));
     }
 
+    @Test
+    @DisplayName("Should list the current user's cards by cursor without counting")
+    void testListAllCardForCurrentUserAfter() {
+        CardSummaryDTO card = new CardSummaryDTO(UUID.randomUUID(), "testuser", "3456", null,
+                CardStatus.ACTIVE, BigDecimal.TEN, LocalDateTime.now());
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findSummariesByUserIdAndCardStatusAfter(
+                eq(userId), eq(CardStatus.ACTIVE), any(), any(), eq(Limit.of(11))))
+                .thenReturn(List.of(card));
+
+        var page = cardService.listAllCardForCurrentUserAfter("ACTIVE", "", 10);
+
+        assertEquals(1, page.content().size());
+        assertEquals("testuser", page.content().get(0).ownerName());
+        assertNull(page.nextCursor());
+        verify(cardRepository, never()).findSummariesByUserIdAndCardStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Admin listing should read owner names from the projection, not the lazy user")
+    void testListAllCards_UsesProjection() {
+        CardSummaryDTO card = new CardSummaryDTO(UUID.randomUUID(), "owner", "3456", null,
+                CardStatus.ACTIVE, BigDecimal.ONE, LocalDateTime.now());
+        when(cardRepository.findSummaries(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(card), PageRequest.of(0, 10), 1));
+
+        CardPageDTO page = cardService.listAllCards(null, 0, 10);
+
+        assertEquals(1, page.totalElements());
+        assertEquals("owner", page.content().get(0).ownerName());
+        assertEquals("**** **** **** 3456", page.content().get(0).maskedNumber());
+        verify(encryptionUtil, never()).decrypt(anyString());
+    }
+
     @Test
     @DisplayName("Should throw NotFoundException if card does not exist")
     void testGetCardById_NotFound() {
@@ -120,7 +177,7 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("100"))
                 .build();
@@ -128,7 +185,7 @@ class CardServiceTest {
         Card toCard = Card.builder()
                 .id(toCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encTo")
+                .cardNumber("encTo").cardNumberLast4("8888")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("50"))
                 .build();
@@ -136,13 +193,15 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("40"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCardId)).thenReturn(Optional.of(toCard));
-        when(encryptionUtil.decrypt("encFrom")).thenReturn("1111222233334444");
-        when(encryptionUtil.decrypt("encTo")).thenReturn("5555666677778888");
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
 
         when(cardRepository.save(any(Card.class))).thenAnswer(i -> i.getArgument(0));
-        when(transferRepository.save(any(Transfer.class))).thenAnswer(i -> i.getArgument(0));
+        // Stands in for @PrePersist, which sets createdAt when the transfer is saved
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(i -> {
+            Transfer transfer = i.getArgument(0);
+            transfer.setCreatedAt(LocalDateTime.now());
+            return transfer;
+        });
 
         TransferResponseDTO result = cardService.transfer(dto);
 
@@ -152,6 +211,98 @@ class CardServiceTest {
         assertNotNull(result.timestamp());
     }
 
+    @Test
+    @DisplayName("Should write a debit and a credit ledger entry with the resulting balances")
+    void testTransfer_WritesLedgerEntries() {
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Card fromCard = Card.builder()
+                .id(fromCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encFrom").cardNumberLast4("4444")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("100"))
+                .build();
+        Card toCard = Card.builder()
+                .id(toCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encTo").cardNumberLast4("8888")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("50"))
+                .build();
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("40"));
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
+
+        cardService.transfer(dto);
+
+        verify(ledgerEntryRepository).saveAll(ledgerEntries.capture());
+        LedgerEntry debit = ledgerEntries.getValue().get(0);
+        LedgerEntry credit = ledgerEntries.getValue().get(1);
+        assertEquals(LedgerEntryType.DEBIT, debit.getEntryType());
+        assertEquals(fromCardId, debit.getCardId());
+        assertEquals(new BigDecimal("60"), debit.getBalanceAfter());
+        assertEquals(LedgerEntryType.CREDIT, credit.getEntryType());
+        assertEquals(toCardId, credit.getCardId());
+        assertEquals(new BigDecimal("90"), credit.getBalanceAfter());
+        verify(outboxService).recordTransfers(argThat(list -> list.size() == 1
+                && list.get(0).getSourceCardId().equals(fromCardId)));
+    }
+
+    @Test
+    @DisplayName("Should credit a striped destination through its slots without locking its row")
+    void testTransfer_StripedDestination() {
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Card fromCard = Card.builder()
+                .id(fromCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encFrom").cardNumberLast4("4444")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("100"))
+                .build();
+        Card toCard = Card.builder()
+                .id(toCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encTo").cardNumberLast4("8888")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("50"))
+                .balanceSlots(8)
+                .build();
+        BigDecimal amount = new BigDecimal("40");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(stripedBalanceService.isStriped(toCardId)).thenReturn(true);
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId))).thenReturn(List.of(fromCard));
+        when(stripedBalanceService.credit(toCardId, userId, fromCardId, amount)).thenReturn(Optional.of("8888"));
+
+        cardService.transfer(dto);
+
+        assertEquals(new BigDecimal("60"), fromCard.getBalance());
+        assertEquals(new BigDecimal("50"), toCard.getBalance());
+        verify(cardRepository, never()).save(toCard);
+    }
+
+    @Test
+    @DisplayName("Should read a striped card's balance and slot credits in one query")
+    void testCheckBalance_StripedCard() {
+        UUID cardId = UUID.randomUUID();
+        Card card = Card.builder()
+                .id(cardId)
+                .user(User.builder().id(userId).build())
+                .balance(new BigDecimal("100"))
+                .balanceSlots(4)
+                .build();
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(stripedBalanceService.isStriped(cardId)).thenReturn(true);
+        when(cardRepository.findBalanceWithPendingCreditsById(cardId)).thenReturn(Optional.of(new BigDecimal("130")));
+
+        assertEquals("130", cardService.checkBalance(cardId.toString()));
+    }
+
     @Test
     @DisplayName("Should throw if transferring to same card")
     void testTransfer_SameCard() {
@@ -171,7 +322,7 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.empty());
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of());
         assertThrows(NotFoundException.class, () -> cardService.transfer(dto));
     }
 
@@ -183,15 +334,14 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("100"))
                 .build();
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCardId)).thenReturn(Optional.empty());
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard));
         assertThrows(NotFoundException.class, () -> cardService.transfer(dto));
     }
 
@@ -204,7 +354,7 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("100"))
                 .build();
@@ -212,7 +362,7 @@ class CardServiceTest {
         Card toCard = Card.builder()
                 .id(toCardId)
                 .user(User.builder().id(UUID.randomUUID()).build()) // other user
-                .cardNumber("encTo")
+                .cardNumber("encTo").cardNumberLast4("8888")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("50"))
                 .build();
@@ -220,8 +370,7 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCardId)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
         assertThrows(ForbiddenRequestException.class, () -> cardService.transfer(dto));
     }
 
@@ -234,7 +383,7 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.BLOCKED)
                 .balance(new BigDecimal("100"))
                 .build();
@@ -242,7 +391,7 @@ class CardServiceTest {
         Card toCard = Card.builder()
                 .id(toCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encTo")
+                .cardNumber("encTo").cardNumberLast4("8888")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("50"))
                 .build();
@@ -250,8 +399,7 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCardId)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
         assertThrows(IllegalStateException.class, () -> cardService.transfer(dto));
     }
 
@@ -264,7 +412,7 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("100"))
                 .build();
@@ -272,7 +420,7 @@ class CardServiceTest {
         Card toCard = Card.builder()
                 .id(toCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encTo")
+                .cardNumber("encTo").cardNumberLast4("8888")
                 .cardStatus(CardStatus.BLOCKED)
                 .balance(new BigDecimal("50"))
                 .build();
@@ -280,8 +428,7 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
-        when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
-        when(cardRepository.findById(toCardId)).thenReturn(Optional.of(toCard));
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
         assertThrows(IllegalStateException.class, () -> cardService.transfer(dto));
     }
 
@@ -294,7 +441,7 @@ class CardServiceTest {
         Card fromCard = Card.builder()
                 .id(fromCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encFrom")
+                .cardNumber("encFrom").cardNumberLast4("4444")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("5"))
                 .build();
@@ -302,7 +449,7 @@ class CardServiceTest {
         Card toCard = Card.builder()
                 .id(toCardId)
                 .user(User.builder().id(userId).build())
-                .cardNumber("encTo")
+                .cardNumber("encTo").cardNumberLast4("8888")
                 .cardStatus(CardStatus.ACTIVE)
                 .balance(new BigDecimal("50"))
                 .build();
@@ -310,11 +457,260 @@ class CardServiceTest {
         TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("10"));
 
         when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
+        assertThrows(IllegalStateException.class, () -> cardService.transfer(dto));
+    }
+
+
+    @Test
+    @DisplayName("Conditional-update mode should debit and credit without loading cards for validation")
+    void testTransfer_ConditionalUpdate_Success() {
+        ReflectionTestUtils.setField(cardService, "transferMode", TransferMode.CONDITIONAL_UPDATE);
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("40");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.debitIfActive(fromCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("60", "4444")));
+        when(cardRepository.creditIfActive(toCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("90", "8888")));
+
+        TransferResponseDTO result = cardService.transfer(dto);
+
+        assertEquals("**** **** **** 4444", result.fromCardNumber());
+        assertEquals("**** **** **** 8888", result.toCardNumber());
+        verify(cardRepository, never()).findAllByIdForUpdate(any());
+        verify(cardRepository, never()).findAllById(any());
+        verify(transferRepository).save(any(Transfer.class));
+    }
+
+    @Test
+    @DisplayName("Conditional-update mode should credit the card directly once its slots were removed elsewhere")
+    void testTransfer_ConditionalUpdate_TargetUnstripedElsewhere() {
+        ReflectionTestUtils.setField(cardService, "transferMode", TransferMode.CONDITIONAL_UPDATE);
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("40");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        // Striped in this instance's cache until the missed slot credit re-reads the card
+        when(stripedBalanceService.isStriped(toCardId)).thenReturn(true, false);
+        when(stripedBalanceService.isStriped(fromCardId)).thenReturn(false);
+        when(stripedBalanceService.credit(toCardId, userId, fromCardId, amount)).thenReturn(Optional.empty());
+        when(cardRepository.debitIfActive(fromCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("60", "4444")));
+        when(cardRepository.creditIfActive(toCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("90", "8888")));
+
+        TransferResponseDTO result = cardService.transfer(dto);
+
+        assertEquals("**** **** **** 8888", result.toCardNumber());
+        verify(cardRepository, never()).findById(toCardId);
+    }
+
+    @Test
+    @DisplayName("Conditional-update mode should apply the updates in PostgreSQL uuid order")
+    void testTransfer_ConditionalUpdate_PostgresUuidOrder() {
+        ReflectionTestUtils.setField(cardService, "transferMode", TransferMode.CONDITIONAL_UPDATE);
+        // Signed UUID.compareTo puts 8... first, PostgreSQL's unsigned byte order puts 0... first
+        UUID fromCardId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID toCardId = UUID.fromString("80000000-0000-0000-0000-000000000001");
+        BigDecimal amount = new BigDecimal("40");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.debitIfActive(fromCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("60", "4444")));
+        when(cardRepository.creditIfActive(toCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("90", "8888")));
+
+        cardService.transfer(dto);
+
+        InOrder inOrder = inOrder(cardRepository);
+        inOrder.verify(cardRepository).debitIfActive(fromCardId, userId, amount);
+        inOrder.verify(cardRepository).creditIfActive(toCardId, userId, amount);
+    }
+
+    @Test
+    @DisplayName("Conditional-update mode should report insufficient funds when the debit matches no row")
+    void testTransfer_ConditionalUpdate_InsufficientFunds() {
+        ReflectionTestUtils.setField(cardService, "transferMode", TransferMode.CONDITIONAL_UPDATE);
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Card fromCard = Card.builder()
+                .id(fromCardId)
+                .user(User.builder().id(userId).build())
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("5"))
+                .build();
+        BigDecimal amount = new BigDecimal("10");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        lenient().when(cardRepository.creditIfActive(toCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("10", "8888")));
+        when(cardRepository.debitIfActive(fromCardId, userId, amount)).thenReturn(Optional.empty());
         when(cardRepository.findById(fromCardId)).thenReturn(Optional.of(fromCard));
+
+        Exception ex = assertThrows(IllegalStateException.class, () -> cardService.transfer(dto));
+        assertTrue(ex.getMessage().contains("Insufficient funds"));
+        verify(transferRepository, never()).save(any(Transfer.class));
+    }
+
+    @Test
+    @DisplayName("Conditional-update mode should report a foreign destination card as forbidden")
+    void testTransfer_ConditionalUpdate_DestinationNotOwned() {
+        ReflectionTestUtils.setField(cardService, "transferMode", TransferMode.CONDITIONAL_UPDATE);
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Card toCard = Card.builder()
+                .id(toCardId)
+                .user(User.builder().id(UUID.randomUUID()).build())
+                .cardStatus(CardStatus.ACTIVE)
+                .build();
+        BigDecimal amount = new BigDecimal("10");
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        lenient().when(cardRepository.debitIfActive(fromCardId, userId, amount))
+                .thenReturn(Optional.of(balanceAfter("0", "4444")));
+        when(cardRepository.creditIfActive(toCardId, userId, amount)).thenReturn(Optional.empty());
         when(cardRepository.findById(toCardId)).thenReturn(Optional.of(toCard));
-        assertThrows(IllegalStateException.class, () -> cardService.transfer(dto));
+
+        assertThrows(ForbiddenRequestException.class, () -> cardService.transfer(dto));
+    }
+
+    @Test
+    @DisplayName("Should replay a cached transfer for a repeated Idempotency-Key without touching cards")
+    void testTransfer_IdempotentReplayFromCache() {
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        BigDecimal amount = new BigDecimal("40");
+        TransferResponseDTO stored = new TransferResponseDTO("**** **** **** 4444", "**** **** **** 8888", amount, LocalDateTime.now());
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), amount);
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(idempotencyCache.find(userId, "key-1")).thenReturn(Optional.of(
+                new TransferIdempotencyCache.IdempotentTransfer(fromCardId, toCardId, amount, stored)));
+
+        assertSame(stored, cardService.transfer(dto, "key-1"));
+        verifyNoInteractions(cardRepository, transferRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject an Idempotency-Key reused for a different transfer")
+    void testTransfer_IdempotencyKeyReusedForOtherTransfer() {
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Transfer previous = Transfer.builder()
+                .sourceCardId(fromCardId)
+                .targetCardId(toCardId)
+                .amount(new BigDecimal("99"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("40"));
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(idempotencyCache.find(userId, "key-1")).thenReturn(Optional.empty());
+        when(transferRepository.findByRequestedByAndIdempotencyKey(userId, "key-1")).thenReturn(Optional.of(previous));
+        when(cardRepository.findAllById(anyList())).thenReturn(List.of());
+
+        assertThrows(ConflictException.class, () -> cardService.transfer(dto, "key-1"));
+        verify(cardRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    @DisplayName("Should persist the Idempotency-Key with a new transfer and cache the response")
+    void testTransfer_IdempotencyKeyStored() {
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Card fromCard = Card.builder()
+                .id(fromCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encFrom").cardNumberLast4("4444")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("100"))
+                .build();
+        Card toCard = Card.builder()
+                .id(toCardId)
+                .user(User.builder().id(userId).build())
+                .cardNumber("encTo").cardNumberLast4("8888")
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("50"))
+                .build();
+        TransferRequestDTO dto = new TransferRequestDTO(fromCardId.toString(), toCardId.toString(), new BigDecimal("40"));
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(idempotencyCache.find(userId, "key-1")).thenReturn(Optional.empty());
+        when(transferRepository.findByRequestedByAndIdempotencyKey(userId, "key-1")).thenReturn(Optional.empty());
+        when(cardRepository.findAllByIdForUpdate(List.of(fromCardId, toCardId))).thenReturn(List.of(fromCard, toCard));
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 15, 10, 30);
+        when(transferRepository.saveAndFlush(any(Transfer.class))).thenAnswer(inv -> {
+            Transfer transfer = inv.getArgument(0);
+            transfer.setCreatedAt(createdAt);
+            return transfer;
+        });
+
+        TransferResponseDTO response = cardService.transfer(dto, "key-1");
+
+        // A replay rebuilds the response from the stored transfer, so the first one must carry the same time
+        assertEquals(createdAt, response.timestamp());
+        ArgumentCaptor<Transfer> saved = ArgumentCaptor.forClass(Transfer.class);
+        verify(transferRepository).saveAndFlush(saved.capture());
+        assertEquals("key-1", saved.getValue().getIdempotencyKey());
+        verify(transferRepository).reserveIdempotencyKey(eq(userId), eq("key-1"), any(), any());
+        assertEquals(userId, saved.getValue().getRequestedBy());
+        verify(idempotencyCache).putAfterCommit(eq(userId), eq("key-1"), any());
+    }
+
+    @Test
+    @DisplayName("Batch transfer should lock all cards once and report per-item results")
+    void testTransferBatch_MixedResults() {
+        UUID aId = UUID.randomUUID();
+        UUID bId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        Card a = Card.builder()
+                .id(aId)
+                .user(User.builder().id(userId).build())
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("100"))
+                .build();
+        Card b = Card.builder()
+                .id(bId)
+                .user(User.builder().id(userId).build())
+                .cardStatus(CardStatus.ACTIVE)
+                .balance(new BigDecimal("0"))
+                .build();
+        List<TransferRequestDTO> requests = List.of(
+                new TransferRequestDTO(aId.toString(), bId.toString(), new BigDecimal("60")),
+                new TransferRequestDTO(aId.toString(), bId.toString(), new BigDecimal("60")),
+                new TransferRequestDTO(bId.toString(), missingId.toString(), new BigDecimal("10")),
+                new TransferRequestDTO(bId.toString(), aId.toString(), new BigDecimal("30")));
+
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(a, b));
+
+        BatchTransferResponseDTO result = cardService.transferBatch(requests);
+
+        assertEquals(2, result.succeeded());
+        assertEquals(2, result.failed());
+        assertFalse(result.results().get(1).success());
+        assertTrue(result.results().get(1).error().contains("Insufficient funds"));
+        assertTrue(result.results().get(2).error().contains("Destination card not found"));
+        assertEquals(new BigDecimal("70"), a.getBalance());
+        assertEquals(new BigDecimal("30"), b.getBalance());
+        verify(cardRepository, times(1)).findAllByIdForUpdate(anyCollection());
+        verify(transferRepository).saveAll(argThat(list -> ((List<?>) list).size() == 2));
     }
 
+    @Test
+    @DisplayName("Batch transfer should reject an empty batch")
+    void testTransferBatch_Empty() {
+        assertThrows(IllegalArgumentException.class, () -> cardService.transferBatch(List.of()));
+    }
 
     @Test
     @DisplayName("Should update card status successfully")
@@ -370,19 +766,35 @@ class CardServiceTest {
         User user = User.builder().id(userId).fullName("User X").build();
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(encryptionUtil.encrypt(anyString())).thenReturn("encryptedNum");
-        when(cardRepository.existsByCardNumberFingerprint(anyString())).thenReturn(false);
-        when(cardRepository.save(any(Card.class))).thenAnswer(i -> {
+        when(cardNumberPool.claim()).thenReturn(new GeneratedCardNumber(new byte[]{1}, "fp", "4242"));
+        when(cardRepository.saveAndFlush(any(Card.class))).thenAnswer(i -> {
             Card card = i.getArgument(0);
             card.setId(UUID.randomUUID());
             return card;
         });
-        when(encryptionUtil.decrypt(anyString())).thenReturn("1234567890123456");
 
         CardDTO result = cardService.createCardAsAdmin(userId.toString(), new BigDecimal("500"));
         assertEquals("User X", result.ownerName());
-        assertEquals("**** **** **** 3456", result.maskedNumber());
+        assertEquals("**** **** **** 4242", result.maskedNumber());
+        verify(cardRepository).saveAndFlush(argThat(c -> "fp".equals(c.getCardNumberFingerprint())
+                && c.getCardNumberCipher().length == 1));
+        verifyNoInteractions(encryptionUtil);
         assertEquals(new BigDecimal("500"), result.balance());
+        verify(ledgerEntryRepository).save(argThat(e -> e.getEntryType() == LedgerEntryType.CREDIT
+                && e.getCardId().equals(result.id())
+                && e.getAmount().equals(new BigDecimal("500"))));
+    }
+
+    @Test
+    @DisplayName("Should report a conflict when the unique index rejects the generated number")
+    void testCreateCardAsAdmin_FingerprintCollision() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(User.builder().id(userId).build()));
+        when(cardNumberPool.claim()).thenReturn(new GeneratedCardNumber(new byte[]{1}, "fp", "4242"));
+        when(cardRepository.saveAndFlush(any(Card.class)))
+                .thenThrow(new org.springframework.dao.DataIntegrityViolationException("duplicate"));
+
+        assertThrows(ConflictException.class, () -> cardService.createCardAsAdmin(userId.toString(), BigDecimal.ZERO));
     }
 
     @Test
@@ -393,4 +805,82 @@ class CardServiceTest {
         assertThrows(NotFoundException.class, () -> cardService.createCardAsAdmin(userId.toString(), BigDecimal.TEN));
     }
 
+    @Test
+    @DisplayName("Should list a card's transfers newest first with a cursor to the next page")
+    void testListTransfers_FirstPage() {
+        UUID cardId = UUID.randomUUID();
+        UUID otherCardId = UUID.randomUUID();
+        Card card = Card.builder().id(cardId).user(User.builder().id(userId).build()).build();
+        LocalDateTime now = LocalDateTime.now();
+        Transfer outgoing = Transfer.builder().id(UUID.randomUUID()).sourceCardId(cardId).targetCardId(otherCardId)
+                .amount(BigDecimal.TEN).createdAt(now).build();
+        Transfer incoming = Transfer.builder().id(UUID.randomUUID()).sourceCardId(otherCardId).targetCardId(cardId)
+                .amount(BigDecimal.ONE).createdAt(now.minusMinutes(1)).build();
+        Transfer extra = Transfer.builder().id(UUID.randomUUID()).sourceCardId(otherCardId).targetCardId(cardId)
+                .amount(BigDecimal.ONE).createdAt(now.minusMinutes(2)).build();
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(transferRepository.findHistoryByCardIdAfter(cardId, PageCursor.END.createdAt(), PageCursor.END.id(), 3))
+                .thenReturn(List.of(outgoing, incoming, extra));
+
+        TransferHistoryPageDTO page = cardService.listTransfers(cardId.toString(), null, 2);
+
+        assertEquals(2, page.content().size());
+        assertEquals(TransferDirection.OUTGOING, page.content().get(0).direction());
+        assertEquals(otherCardId, page.content().get(0).counterpartyCardId());
+        assertEquals(TransferDirection.INCOMING, page.content().get(1).direction());
+        assertEquals(otherCardId, page.content().get(1).counterpartyCardId());
+        assertEquals(new PageCursor(incoming.getCreatedAt(), incoming.getId()).encode(), page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should continue the transfer history from the cursor and end without a next cursor")
+    void testListTransfers_LastPage() {
+        UUID cardId = UUID.randomUUID();
+        Card card = Card.builder().id(cardId).user(User.builder().id(userId).build()).build();
+        PageCursor cursor = new PageCursor(LocalDateTime.now(), UUID.randomUUID());
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+        when(transferRepository.findHistoryByCardIdAfter(cardId, cursor.createdAt(), cursor.id(), 21))
+                .thenReturn(List.of());
+
+        TransferHistoryPageDTO page = cardService.listTransfers(cardId.toString(), cursor.encode(), 20);
+
+        assertTrue(page.content().isEmpty());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should refuse the transfer history of another user's card")
+    void testListTransfers_NotOwner() {
+        UUID cardId = UUID.randomUUID();
+        Card card = Card.builder().id(cardId).user(User.builder().id(UUID.randomUUID()).build()).build();
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(card));
+
+        assertThrows(ForbiddenRequestException.class, () -> cardService.listTransfers(cardId.toString(), null, 20));
+        verifyNoInteractions(transferRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a transfer history page above the maximum size")
+    void testListTransfers_PageTooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cardService.listTransfers(UUID.randomUUID().toString(), null, 101));
+        verifyNoInteractions(cardRepository, transferRepository);
+    }
+
+    private static CardRepository.BalanceAfterUpdate balanceAfter(String balance, String cardNumberLast4) {
+        return new CardRepository.BalanceAfterUpdate() {
+            @Override
+            public BigDecimal getBalance() {
+                return new BigDecimal(balance);
+            }
+
+            @Override
+            public String getCardNumberLast4() {
+                return cardNumberLast4;
+            }
+        };
+    }
 }
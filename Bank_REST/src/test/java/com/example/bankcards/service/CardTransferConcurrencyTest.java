@@ -0,0 +1,147 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransferRequestDTO;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.entity.UserDetailsImpl;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.LedgerEntryRepository;
+import com.example.bankcards.repository.TransferRepository;
+import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.service.impl.CardServiceImpl;
+import com.example.bankcards.util.EncryptionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fires thousands of random transfers from several threads against a repository stub that emulates
+ * {@code SELECT ... FOR UPDATE}: every row returned by {@code findAllByIdForUpdate} stays locked by the
+ * calling thread until its "transaction" (the service call) ends.
+ */
+class CardTransferConcurrencyTest {
+
+    private static final int CARDS = 16;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS = 5_000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    private final Map<UUID, Card> cards = new ConcurrentHashMap<>();
+    private final Map<UUID, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<ReentrantLock>> heldLocks = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private CardServiceImpl cardService;
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder().id(UUID.randomUUID()).role(Role.USER).username("stress").build();
+        principal = new UserDetailsImpl(user);
+
+        for (int i = 0; i < CARDS; i++) {
+            UUID id = UUID.randomUUID();
+            cards.put(id, Card.builder()
+                    .id(id)
+                    .user(user)
+                    .cardNumber("enc" + i)
+                    .cardNumberLast4("4444")
+                    .cardStatus(CardStatus.ACTIVE)
+                    .balance(INITIAL_BALANCE)
+                    .build());
+            rowLocks.put(id, new ReentrantLock());
+        }
+
+        CardRepository cardRepository = mock(CardRepository.class);
+        when(cardRepository.findAllByIdForUpdate(anyCollection())).thenAnswer(inv -> {
+            Collection<UUID> ids = inv.getArgument(0);
+            List<Card> result = new ArrayList<>();
+            ids.stream().sorted().forEach(id -> {
+                ReentrantLock lock = rowLocks.get(id);
+                lock.lock();
+                heldLocks.get().push(lock);
+                result.add(cards.get(id));
+            });
+            return result;
+        });
+
+        cardService = new CardServiceImpl(cardRepository, mock(EncryptionUtil.class),
+                mock(UserRepository.class), mock(TransferRepository.class), mock(TransferIdempotencyCache.class),
+                mock(LedgerEntryRepository.class), mock(StripedBalanceService.class),
+                mock(OutboxService.class), mock(CardNumberPool.class), mock(ReadYourWritesWindow.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Concurrent random transfers should conserve the total balance and never deadlock")
+    void testConcurrentTransfers_ConserveTotalBalance() throws Exception {
+        List<UUID> ids = new ArrayList<>(cards.keySet());
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                UUID from = ids.get(random.nextInt(ids.size()));
+                UUID to = ids.get(random.nextInt(ids.size()));
+                while (to.equals(from)) {
+                    to = ids.get(random.nextInt(ids.size()));
+                }
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+                try {
+                    cardService.transfer(new TransferRequestDTO(from.toString(), to.toString(), amount));
+                    completed.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    // Commit: release every row lock taken during the call
+                    Deque<ReentrantLock> held = heldLocks.get();
+                    while (!held.isEmpty()) {
+                        held.pop().unlock();
+                    }
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "Transfers did not finish, possible deadlock");
+
+        BigDecimal total = cards.values().stream().map(Card::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)), total);
+        assertEquals(TRANSFERS, completed.get() + rejected.get());
+        assertTrue(cards.values().stream().allMatch(c -> c.getBalance().signum() >= 0));
+    }
+}
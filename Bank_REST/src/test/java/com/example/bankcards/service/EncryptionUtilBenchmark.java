@@ -0,0 +1,75 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.util.EncryptionUtilImpl;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Rough per-call cost of card number decryption, comparing a fresh {@code Cipher.getInstance} per call
+ * (the previous implementation) with the pooled {@code decrypt} and the batched {@code decryptAll}.
+ * Not a unit test; run after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.example.bankcards.service.EncryptionUtilBenchmark}.
+ */
+public class EncryptionUtilBenchmark {
+
+    private static final String KEY = "1234567890123456";
+    private static final int VALUES = 1_000;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) throws Exception {
+        EncryptionUtilImpl util = new EncryptionUtilImpl(KEY);
+        SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+
+        List<String> cipherTexts = new ArrayList<>(VALUES);
+        for (int i = 0; i < VALUES; i++) {
+            cipherTexts.add(util.encrypt(String.format("4000%012d", i)));
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            boolean report = pass == 1;
+            measure("getInstance per call", report, () -> {
+                for (String c : cipherTexts) {
+                    decryptWithFreshCipher(keySpec, c);
+                }
+            });
+            measure("pooled decrypt", report, () -> {
+                for (String c : cipherTexts) {
+                    util.decrypt(c);
+                }
+            });
+            measure("decryptAll", report, () -> util.decryptAll(cipherTexts));
+        }
+    }
+
+    private static void measure(String name, boolean report, Task task) throws Exception {
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            task.run();
+        }
+        long perCall = (System.nanoTime() - start) / ((long) ROUNDS * VALUES);
+        if (report) {
+            System.out.printf("%-22s %6d ns/op%n", name, perCall);
+        }
+    }
+
+    private static String decryptWithFreshCipher(SecretKeySpec keySpec, String cipherText) throws Exception {
+        String[] parts = cipherText.split(":", 2);
+        byte[] iv = Base64.getDecoder().decode(parts[0]);
+        byte[] payload = Base64.getDecoder().decode(parts[1]);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(payload), StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
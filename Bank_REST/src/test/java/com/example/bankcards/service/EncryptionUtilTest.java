@@ -6,6 +6,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class EncryptionUtilTest {
@@ -51,6 +53,72 @@ class EncryptionUtilTest {
         assertEquals(plain, encryptionService.decrypt(encrypted2));
     }
 
+    @Test
+    @DisplayName("Should decrypt a batch in input order")
+    void testDecryptAll() {
+        List<String> plains = List.of("4000000000000001", "4000000000000002", "4000000000000003");
+        List<String> encrypted = plains.stream().map(encryptionService::encrypt).toList();
+
+        assertEquals(plains, encryptionService.decryptAll(encrypted));
+    }
+
+    @Test
+    @DisplayName("Should keep working after a failed decryption returns its cipher to the pool")
+    void testCipherReusableAfterFailure() {
+        String encrypted = encryptionService.encrypt("SensitiveData123!");
+        String tampered = encrypted.substring(0, encrypted.length() - 4) + "AAA=";
+
+        assertThrows(RuntimeException.class, () -> encryptionService.decrypt(tampered));
+        assertEquals("SensitiveData123!", encryptionService.decrypt(encrypted));
+        assertNotEquals(encryptionService.encrypt("x"), encryptionService.encrypt("x"));
+    }
+
+    @Test
+    @DisplayName("Should round-trip the binary format with a version header and inline IV")
+    void testBinaryFormat() {
+        String plain = "4000123412341234";
+
+        byte[] encrypted = encryptionService.encryptBinary(plain);
+
+        assertEquals(1, encrypted[0]);
+        // header + 12-byte IV + 16 plaintext bytes + 16-byte tag
+        assertEquals(1 + 12 + 16 + 16, encrypted.length);
+        assertTrue(encrypted.length < encryptionService.encrypt(plain).length());
+        assertEquals(plain, encryptionService.decryptBinary(encrypted));
+    }
+
+    @Test
+    @DisplayName("Should reject binary values with an unknown format header")
+    void testBinaryFormatUnknownHeader() {
+        byte[] encrypted = encryptionService.encryptBinary("4000123412341234");
+        encrypted[0] = 9;
+
+        assertThrows(RuntimeException.class, () -> encryptionService.decryptBinary(encrypted));
+    }
+
+    @Test
+    @DisplayName("Should encrypt with the active key and still read values written with older keys")
+    void testKeyRing() {
+        byte[] oldValue = encryptionService.encryptBinary("4000123412341234");
+        setField(encryptionService, "additionalKeys", "2:abcdefghijklmnop");
+        setField(encryptionService, "activeKeyId", 2);
+        encryptionService.init();
+
+        byte[] newValue = encryptionService.encryptBinary("4000123412341234");
+
+        assertEquals(1, encryptionService.keyIdOf(oldValue));
+        assertEquals(2, encryptionService.keyIdOf(newValue));
+        assertEquals("4000123412341234", encryptionService.decryptBinary(oldValue));
+        assertEquals("4000123412341234", encryptionService.decryptBinary(newValue));
+    }
+
+    @Test
+    @DisplayName("Should refuse an active key id missing from the key ring")
+    void testKeyRingMissingActiveKey() {
+        setField(encryptionService, "activeKeyId", 3);
+        assertThrows(IllegalStateException.class, () -> encryptionService.init());
+    }
+
     @Test
     @DisplayName("Should throw exception on decryption if ciphertext is invalid")
     void testDecryptInvalidCiphertext() {
@@ -0,0 +1,103 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.entity.Transfer;
+import com.example.bankcards.event.EventPublisher;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.example.bankcards.service.impl.OutboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    OutboxEventRepository outboxEventRepository;
+    @Mock
+    EventPublisher eventPublisher;
+
+    @Captor
+    ArgumentCaptor<List<OutboxEvent>> savedEvents;
+
+    OutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxServiceImpl(outboxEventRepository, eventPublisher,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    @DisplayName("Should write one TransferCompleted event per transfer")
+    void testRecordTransfers() {
+        UUID transferId = UUID.randomUUID();
+        Transfer transfer = Transfer.builder()
+                .id(transferId)
+                .sourceCardId(UUID.randomUUID())
+                .targetCardId(UUID.randomUUID())
+                .amount(new BigDecimal("12.50"))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        outboxService.recordTransfers(List.of(transfer));
+
+        verify(outboxEventRepository).saveAll(savedEvents.capture());
+        OutboxEvent event = savedEvents.getValue().get(0);
+        assertEquals(transferId, event.getAggregateId());
+        assertEquals("TransferCompleted", event.getEventType());
+        assertTrue(event.getPayload().contains("\"amount\":12.50"));
+    }
+
+    @Test
+    @DisplayName("Should mark delivered events as published and back off failed ones")
+    void testPublishPending() {
+        OutboxEvent ok = OutboxEvent.builder().id(UUID.randomUUID()).payload("{}").build();
+        OutboxEvent failing = OutboxEvent.builder().id(UUID.randomUUID()).payload("{}").build();
+        when(outboxEventRepository.lockNextBatch(10)).thenReturn(List.of(ok, failing));
+        doAnswer(inv -> {
+            if (inv.getArgument(0) == failing) {
+                throw new IllegalStateException("broker down");
+            }
+            return null;
+        }).when(eventPublisher).publish(any());
+
+        int published = outboxService.publishPending(10);
+
+        assertEquals(1, published);
+        assertNotNull(ok.getPublishedAt());
+        assertNull(failing.getPublishedAt());
+        assertEquals(1, failing.getAttempts());
+        assertTrue(failing.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNull(failing.getDeadLetteredAt());
+        verify(outboxEventRepository).saveAll(List.of(ok, failing));
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an event that keeps failing")
+    void testPublishPending_DeadLetter() {
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 3);
+        OutboxEvent poison = OutboxEvent.builder().id(UUID.randomUUID()).payload("{}").attempts(2).build();
+        when(outboxEventRepository.lockNextBatch(10)).thenReturn(List.of(poison));
+        doThrow(new IllegalStateException("bad payload")).when(eventPublisher).publish(poison);
+
+        assertEquals(0, outboxService.publishPending(10));
+        assertEquals(3, poison.getAttempts());
+        assertNotNull(poison.getDeadLetteredAt());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardBalanceSlotRepository;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.impl.StripedBalanceServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class StripedBalanceServiceTest {
+
+    @Mock
+    CardRepository cardRepository;
+    @Mock
+    CardBalanceSlotRepository slotRepository;
+
+    @InjectMocks
+    StripedBalanceServiceImpl stripedBalanceService;
+
+    @Test
+    @DisplayName("Should credit the slot picked by the source card hash")
+    void testCredit_UsesHashedSlot() {
+        UUID cardId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+        UUID sourceId = UUID.randomUUID();
+        when(cardRepository.findByBalanceSlotsGreaterThan(0))
+                .thenReturn(List.of(Card.builder().id(cardId).balanceSlots(4).build()));
+        stripedBalanceService.refresh();
+        int slot = Math.floorMod(sourceId.hashCode(), 4);
+        when(slotRepository.creditIfActive(cardId, slot, ownerId, BigDecimal.TEN)).thenReturn(Optional.of("1234"));
+
+        assertTrue(stripedBalanceService.isStriped(cardId));
+        assertEquals(Optional.of("1234"), stripedBalanceService.credit(cardId, ownerId, sourceId, BigDecimal.TEN));
+    }
+
+    @Test
+    @DisplayName("Should forget a card unstriped on another instance when its slot credit misses")
+    void testCredit_UnstripedElsewhere() {
+        UUID cardId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+        UUID sourceId = UUID.randomUUID();
+        when(cardRepository.findByBalanceSlotsGreaterThan(0))
+                .thenReturn(List.of(Card.builder().id(cardId).balanceSlots(4).build()));
+        stripedBalanceService.refresh();
+        when(slotRepository.creditIfActive(eq(cardId), anyInt(), eq(ownerId), eq(BigDecimal.TEN)))
+                .thenReturn(Optional.empty());
+        when(cardRepository.findBalanceSlotsById(cardId)).thenReturn(Optional.of(0));
+
+        assertTrue(stripedBalanceService.credit(cardId, ownerId, sourceId, BigDecimal.TEN).isEmpty());
+        assertFalse(stripedBalanceService.isStriped(cardId));
+    }
+
+    @Test
+    @DisplayName("Should retry with the new slot count of a card resized on another instance")
+    void testCredit_ResizedElsewhere() {
+        UUID cardId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+        UUID sourceId = UUID.fromString("00000000-0000-0000-0000-000000000007");
+        when(cardRepository.findByBalanceSlotsGreaterThan(0))
+                .thenReturn(List.of(Card.builder().id(cardId).balanceSlots(8).build()));
+        stripedBalanceService.refresh();
+        int oldSlot = Math.floorMod(sourceId.hashCode(), 8);
+        int newSlot = Math.floorMod(sourceId.hashCode(), 2);
+        when(slotRepository.creditIfActive(cardId, oldSlot, ownerId, BigDecimal.TEN)).thenReturn(Optional.empty());
+        when(cardRepository.findBalanceSlotsById(cardId)).thenReturn(Optional.of(2));
+        when(slotRepository.creditIfActive(cardId, newSlot, ownerId, BigDecimal.TEN)).thenReturn(Optional.of("1234"));
+
+        assertEquals(Optional.of("1234"), stripedBalanceService.credit(cardId, ownerId, sourceId, BigDecimal.TEN));
+        assertTrue(stripedBalanceService.isStriped(cardId));
+    }
+
+    @Test
+    @DisplayName("Should not credit slots of a card that is not striped")
+    void testCredit_NotStriped() {
+        assertTrue(stripedBalanceService.credit(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN).isEmpty());
+        verifyNoInteractions(slotRepository);
+    }
+
+    @Test
+    @DisplayName("Should fold drained slot balances into the card balance")
+    void testFold() {
+        UUID cardId = UUID.randomUUID();
+        Card card = Card.builder().id(cardId).balance(new BigDecimal("100")).balanceSlots(4).build();
+        when(cardRepository.findAllByIdForUpdate(List.of(cardId))).thenReturn(List.of(card));
+        when(slotRepository.drain(cardId)).thenReturn(new BigDecimal("25"));
+
+        stripedBalanceService.fold(cardId);
+
+        assertEquals(new BigDecimal("125"), card.getBalance());
+        verify(cardRepository).save(card);
+    }
+
+    @Test
+    @DisplayName("Should fold and recreate slots when the slot count changes")
+    void testConfigureSlots() {
+        UUID cardId = UUID.randomUUID();
+        Card card = Card.builder().id(cardId).balance(new BigDecimal("100")).build();
+        when(cardRepository.findAllByIdForUpdate(List.of(cardId))).thenReturn(List.of(card));
+        when(slotRepository.drain(cardId)).thenReturn(BigDecimal.ZERO);
+
+        stripedBalanceService.configureSlots(cardId, 4);
+
+        assertEquals(4, card.getBalanceSlots());
+        assertTrue(stripedBalanceService.isStriped(cardId));
+        InOrder inOrder = inOrder(cardRepository, slotRepository);
+        inOrder.verify(cardRepository).findAllByIdForUpdate(List.of(cardId));
+        inOrder.verify(slotRepository).lockAllByCardId(cardId);
+        inOrder.verify(slotRepository).drain(cardId);
+        inOrder.verify(slotRepository).deleteByCardId(cardId);
+        verify(slotRepository).saveAll(argThat(slots -> ((List<?>) slots).size() == 4));
+    }
+
+    @Test
+    @DisplayName("Should reject a negative slot count")
+    void testConfigureSlots_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> stripedBalanceService.configureSlots(UUID.randomUUID(), -1));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class TransferPartitionManagerTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransferRepository transferRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    TransferPartitionManager partitionManager;
+
+    TransferPartitionManager.Session session;
+
+    YearMonth now = YearMonth.now();
+
+    @BeforeEach
+    void setUp() {
+        partitionManager = new TransferPartitionManager(jdbcTemplate, transferRepository, transactionManager);
+        session = new TransferPartitionManager.Session(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(partitionManager, "monthsAhead", 2);
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 12);
+    }
+
+    @Test
+    @DisplayName("Should create only the missing partitions up to months-ahead")
+    void testCreateFuturePartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(TransferPartitionManager.partitionName(now), "transfers_default"));
+
+        int created = partitionManager.createFuturePartitions(session);
+
+        assertEquals(2, created);
+        YearMonth next = now.plusMonths(1);
+        String name = TransferPartitionManager.partitionName(next);
+        verify(jdbcTemplate).execute("CREATE TABLE " + name + " (LIKE transfers INCLUDING DEFAULTS)");
+        verify(jdbcTemplate).execute("ALTER TABLE transfers ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + next.atDay(1) + "') TO ('" + next.plusMonths(1).atDay(1) + "')");
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE"));
+        verify(jdbcTemplate, times(2)).execute(startsWith("SET LOCAL lock_timeout"));
+        verify(jdbcTemplate, never()).execute(contains(TransferPartitionManager.partitionName(now) + " "));
+    }
+
+    @Test
+    @DisplayName("Should move rows that landed in the default partition into the new one")
+    void testCreateFuturePartitions_MovesRowsFromDefault() {
+        ReflectionTestUtils.setField(partitionManager, "monthsAhead", 0);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("transfers_default"));
+        String name = TransferPartitionManager.partitionName(now);
+        when(jdbcTemplate.update(endsWith("INSERT INTO " + name + " SELECT * FROM moved"),
+                eq(now.atDay(1).atStartOfDay()), eq(now.plusMonths(1).atDay(1).atStartOfDay())))
+                .thenReturn(3);
+
+        assertEquals(1, partitionManager.createFuturePartitions(session));
+
+        verify(jdbcTemplate).execute(startsWith("ALTER TABLE transfers ATTACH PARTITION " + name));
+    }
+
+    @Test
+    @DisplayName("Should detach and archive only partitions older than the retention")
+    void testArchiveExpiredPartitions() {
+        String expired = TransferPartitionManager.partitionName(now.minusMonths(13));
+        String kept = TransferPartitionManager.partitionName(now.minusMonths(12));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(expired, kept));
+
+        int archived = partitionManager.archiveExpiredPartitions(session);
+
+        assertEquals(1, archived);
+        verify(jdbcTemplate).execute("ALTER TABLE transfers DETACH PARTITION " + expired);
+        verify(jdbcTemplate).execute("ALTER TABLE " + expired + " SET SCHEMA transfers_archive");
+        verify(jdbcTemplate, never()).execute(contains(kept));
+        verify(transferRepository).deleteIdempotencyKeysBefore(now.minusMonths(12).atDay(1).atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Should keep every partition when retention is disabled")
+    void testArchiveDisabled() {
+        ReflectionTestUtils.setField(partitionManager, "retentionMonths", 0);
+
+        assertEquals(0, partitionManager.archiveExpiredPartitions(session));
+        verifyNoInteractions(jdbcTemplate, transferRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep archiving and purge keys when one partition fails to detach")
+    void testArchiveExpiredPartitions_FailureDoesNotStopTheRun() {
+        String failing = TransferPartitionManager.partitionName(now.minusMonths(14));
+        String expired = TransferPartitionManager.partitionName(now.minusMonths(13));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(failing, expired));
+        lenient().doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(jdbcTemplate).execute("ALTER TABLE transfers DETACH PARTITION " + failing);
+
+        int archived = partitionManager.archiveExpiredPartitions(session);
+
+        assertEquals(1, archived);
+        verify(jdbcTemplate).execute("ALTER TABLE " + expired + " SET SCHEMA transfers_archive");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE " + failing + " SET SCHEMA transfers_archive");
+        verify(transferRepository).deleteIdempotencyKeysBefore(any());
+    }
+
+    @Test
+    @DisplayName("Should skip maintenance while another instance holds the lock")
+    void testMaintain_LockHeldElsewhere() throws Exception {
+        mockLockConnection(false);
+
+        partitionManager.maintain(true);
+
+        verify(lockStatement, never()).executeQuery(startsWith("SELECT c.relname"));
+        verify(lockStatement, never()).executeQuery(startsWith("SELECT pg_advisory_unlock"));
+        verifyNoInteractions(transferRepository);
+    }
+
+    @Test
+    @DisplayName("Should run the DDL on the locked connection and release the lock even when it fails")
+    void testMaintain_WorksOnLockedConnection() throws Exception {
+        mockLockConnection(true);
+        when(lockStatement.executeQuery(startsWith("SELECT c.relname"))).thenThrow(new SQLException("boom"));
+
+        assertThrows(DataAccessException.class, () -> partitionManager.maintain(false));
+
+        verify(lockStatement).executeQuery(startsWith("SELECT pg_advisory_unlock"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class));
+    }
+
+    private Statement lockStatement;
+
+    private void mockLockConnection(boolean acquired) throws Exception {
+        Connection connection = mock(Connection.class);
+        lockStatement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(lockStatement);
+        when(lockStatement.executeQuery(startsWith("SELECT pg_"))).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getBoolean(1)).thenReturn(acquired);
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<Object>>any()))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.service.UniqueCardNumberGenerator.GeneratedCardNumber;
+import com.example.bankcards.util.EncryptionUtilImpl;
+import com.example.bankcards.util.FingerprintUtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class UniqueCardNumberGeneratorTest {
+
+    @Mock
+    CardRepository cardRepository;
+
+    @Mock
+    CardFingerprintFilter fingerprintFilter;
+
+    EncryptionUtilImpl encryptionUtil = new EncryptionUtilImpl("1234567890123456");
+    FingerprintUtilImpl fingerprintUtil = new FingerprintUtilImpl("fingerprint-test-key");
+    UniqueCardNumberGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new UniqueCardNumberGenerator(cardRepository, encryptionUtil, fingerprintUtil, fingerprintFilter);
+    }
+
+    @Test
+    @DisplayName("Should skip the lookup for numbers the Bloom filter has never seen")
+    void testGenerate_BloomFilterMiss() {
+        when(fingerprintFilter.mightContain(anyString())).thenReturn(false);
+
+        List<GeneratedCardNumber> numbers = generator.generate(10);
+
+        assertEquals(10, numbers.size());
+        assertEquals(10, numbers.stream().map(GeneratedCardNumber::fingerprint).distinct().count());
+        verify(cardRepository, never()).findExistingFingerprints(anyCollection());
+        verify(fingerprintFilter, times(10)).add(anyString());
+
+        GeneratedCardNumber number = numbers.get(0);
+        String raw = encryptionUtil.decryptBinary(number.encryptedNumber());
+        assertEquals(16, raw.length());
+        assertEquals(fingerprintUtil.fingerprint(raw), number.fingerprint());
+        assertEquals(raw.substring(12), number.last4());
+    }
+
+    @Test
+    @DisplayName("Should replace numbers the batch query reports as taken")
+    void testGenerate_RedrawsTakenNumbers() {
+        Set<String> taken = new HashSet<>();
+        when(fingerprintFilter.mightContain(anyString())).thenReturn(true);
+        when(cardRepository.findExistingFingerprints(anyCollection())).thenAnswer(inv -> {
+            Collection<String> fingerprints = inv.getArgument(0);
+            if (!taken.isEmpty()) {
+                return List.of();
+            }
+            String first = fingerprints.iterator().next();
+            taken.add(first);
+            return List.of(first);
+        });
+
+        List<GeneratedCardNumber> numbers = generator.generate(4);
+
+        assertEquals(4, numbers.size());
+        verify(cardRepository, times(2)).findExistingFingerprints(anyCollection());
+        assertTrue(numbers.stream().noneMatch(number -> taken.contains(number.fingerprint())));
+    }
+}
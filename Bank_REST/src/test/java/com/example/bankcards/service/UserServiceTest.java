@@ -10,6 +10,7 @@ import com.example.bankcards.exception.NotFoundException;
 import com.example.bankcards.repository.CardRepository;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.service.impl.UserServiceImpl;
+import com.example.bankcards.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -75,6 +76,45 @@ class UserServiceTest {
         assertEquals("John Doe", result.content().get(0).fullName());
     }
 
+    @Test
+    @DisplayName("Should return a next cursor when a keyset page has more rows")
+    void testGetAllUsersAfter_HasNext() {
+        User second = User.builder().id(UUID.randomUUID()).fullName("Jane Doe")
+                .createdAt(user.getCreatedAt().plusSeconds(1)).build();
+        User third = User.builder().id(UUID.randomUUID()).fullName("Jim Doe")
+                .createdAt(user.getCreatedAt().plusSeconds(2)).build();
+        when(userRepository.findPageAfter(PageCursor.START.createdAt(), PageCursor.START.id(), 3))
+                .thenReturn(List.of(user, second, third));
+
+        UserPageDTO result = userService.getAllUsersAfter("", 2, null);
+
+        assertEquals(2, result.content().size());
+        assertEquals(-1, result.totalElements());
+        PageCursor next = PageCursor.decode(result.nextCursor());
+        assertEquals(second.getId(), next.id());
+        assertEquals(second.getCreatedAt(), next.createdAt());
+        verify(userRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should continue from the cursor and stop on the last page")
+    void testGetAllUsersAfter_LastPage() {
+        PageCursor cursor = new PageCursor(LocalDateTime.now().minusDays(1), UUID.randomUUID());
+        when(userRepository.findPageByFullNameAfter("John", cursor.createdAt(), cursor.id(), 11))
+                .thenReturn(List.of(user));
+
+        UserPageDTO result = userService.getAllUsersAfter(cursor.encode(), 10, "John");
+
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void testGetAllUsersAfter_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> userService.getAllUsersAfter("not-a-cursor", 10, null));
+    }
+
     @Test
     @DisplayName("Should return UserDTO when user exists")
     void testGetUserById_Success() {